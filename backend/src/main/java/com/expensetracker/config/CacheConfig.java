@@ -0,0 +1,75 @@
+package com.expensetracker.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Enables Spring's cache abstraction. Caches, sizes and TTLs are declared in application.properties
+ * (spring.cache.*) and their hit/miss statistics are published through actuator as cache.gets.
+ *
+ * Also builds the JCache (Caffeine) regions behind Hibernate's second-level and query caches, sized from
+ * app.cache.*: users holds User entities, expense-summaries the cached summary query results. Hibernate
+ * keeps results valid by comparing them with the last write to each table they read, recorded in the
+ * timestamps region, which therefore never expires.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String USER_DETAILS_CACHE = "userDetails";
+
+    public static final String USERS_REGION = "users";
+    public static final String EXPENSE_SUMMARIES_REGION = "expense-summaries";
+
+    // Every application context gets its own manager, so tests with separate databases never share entries
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.users.max-entries:10000}") long usersMaxEntries,
+                                              @Value("${app.cache.users.ttl:10m}") Duration usersTtl,
+                                              @Value("${app.cache.expense-summaries.max-entries:20000}") long summariesMaxEntries,
+                                              @Value("${app.cache.expense-summaries.ttl:10m}") Duration summariesTtl) {
+        CaffeineCachingProvider provider = (CaffeineCachingProvider) Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("hibernate:" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(USERS_REGION, region(usersMaxEntries, usersTtl));
+        cacheManager.createCache(EXPENSE_SUMMARIES_REGION, region(summariesMaxEntries, summariesTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(summariesMaxEntries, summariesTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>()
+                .setStoreByValue(false));
+        return cacheManager;
+    }
+
+    // Set here rather than in application.properties so the cache is only switched on where its regions exist
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    // Hibernate stores immutable, already disassembled entries, so there is nothing to copy on the way in or out
+    private static CaffeineConfiguration<Object, Object> region(long maxEntries, Duration ttl) {
+        return new CaffeineConfiguration<>()
+                .setMaximumSize(OptionalLong.of(maxEntries))
+                .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                .setStoreByValue(false)
+                .setStatisticsEnabled(true);
+    }
+}
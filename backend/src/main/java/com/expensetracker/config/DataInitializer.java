@@ -2,7 +2,14 @@ package com.expensetracker.config;
 
 import com.expensetracker.model.Role;
 import com.expensetracker.model.User;
+import com.expensetracker.payload.RollupVerificationDTO;
+import com.expensetracker.repository.ExpenseRepository;
 import com.expensetracker.repository.UserRepository;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -15,6 +22,8 @@ import java.util.List;
 @Configuration
 public class DataInitializer {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
+
     @Bean
     @ConfigurationProperties(prefix = "app")
     public InitialUsersProperties initialUsersProperties() {
@@ -49,6 +58,39 @@ public class DataInitializer {
         };
     }
 
+    /**
+     * Backfills the expense rollup on first start after it was introduced, or always rebuilds when run with
+     * {@code --app.rollups.rebuild-on-startup=true}.
+     */
+    @Bean
+    public CommandLineRunner rollupInitializer(ExpenseRollupService expenseRollupService, ExpenseRepository expenseRepository,
+                                               @Value("${app.rollups.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        return args -> {
+            if (rebuildOnStartup || (expenseRollupService.isEmpty() && expenseRepository.count() > 0)) {
+                RollupVerificationDTO result = expenseRollupService.rebuild();
+                if (result.isConsistent()) {
+                    logger.info("Expense rollup rebuilt: {} buckets verified", result.buckets());
+                } else {
+                    logger.error("Expense rollup rebuilt with {} mismatched buckets", result.mismatches());
+                }
+            }
+        };
+    }
+
+    /**
+     * Indexes expense descriptions up front when run with {@code --app.expenses.search-index.rebuild-on-startup=true};
+     * otherwise each user is indexed on their first search.
+     */
+    @Bean
+    public CommandLineRunner searchIndexInitializer(ExpenseSearchIndex expenseSearchIndex,
+                                                    @Value("${app.expenses.search-index.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        return args -> {
+            if (rebuildOnStartup) {
+                expenseSearchIndex.rebuild();
+            }
+        };
+    }
+
     public static class InitialUsersProperties {
         private List<UserProperties> initialUsers = new ArrayList<>();
 
@@ -1,13 +1,20 @@
 package com.expensetracker.config;
 
 import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.exception.ServiceBusyException;
+import com.expensetracker.exception.TooManyRequestsException;
 import com.expensetracker.exception.UnauthorizedException;
 import com.expensetracker.payload.MessageResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -24,6 +31,54 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(messageResponse, HttpStatus.UNAUTHORIZED);
     }
 
+    // @PreAuthorize failures; without this the catch-all below turns them into 500s
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<?> accessDeniedException(AccessDeniedException ex, WebRequest request) {
+        MessageResponse messageResponse = new MessageResponse(ex.getMessage());
+        return new ResponseEntity<>(messageResponse, HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> tooManyRequestsException(TooManyRequestsException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<?> serviceBusyException(ServiceBusyException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfterSeconds()))
+                .body(new MessageResponse(ex.getMessage()));
+    }
+
+    // The streaming executor's threads and queue are all taken (see WebConfig.initStreamingExecutor)
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<?> taskRejectedException(TaskRejectedException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new MessageResponse("Too many streamed responses in progress"));
+    }
+
+    // Malformed or invalid JSON bodies, e.g. a missing or non-numeric amount
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<?> httpMessageNotReadableException(HttpMessageNotReadableException ex, WebRequest request) {
+        MessageResponse messageResponse = new MessageResponse(ex.getMostSpecificCause().getMessage());
+        return new ResponseEntity<>(messageResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<?> illegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+        MessageResponse messageResponse = new MessageResponse(ex.getMessage());
+        return new ResponseEntity<>(messageResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<?> responseStatusException(ResponseStatusException ex, WebRequest request) {
+        MessageResponse messageResponse = new MessageResponse(ex.getReason());
+        return new ResponseEntity<>(messageResponse, ex.getStatusCode());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<?> globalExceptionHandler(Exception ex, WebRequest request) {
         MessageResponse messageResponse = new MessageResponse(ex.getMessage());
@@ -0,0 +1,85 @@
+package com.expensetracker.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.SessionEventListener;
+
+/**
+ * Counts Hibernate work (JDBC statements, entity loads, flushes) on the current thread, so
+ * RequestMetricsFilter can attribute it to the request that thread is serving. Unlike
+ * hibernate.generate_statistics, the counts are not mixed across concurrent requests.
+ * Work done on another thread (streamed responses) is not attributed.
+ */
+public final class HibernateRequestStats {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[3]);
+
+    private static final int STATEMENTS = 0;
+    private static final int ENTITY_LOADS = 1;
+    private static final int FLUSHES = 2;
+
+    private HibernateRequestStats() {
+    }
+
+    static void reset() {
+        long[] counts = COUNTS.get();
+        counts[STATEMENTS] = 0;
+        counts[ENTITY_LOADS] = 0;
+        counts[FLUSHES] = 0;
+    }
+
+    static long statements() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    static long entityLoads() {
+        return COUNTS.get()[ENTITY_LOADS];
+    }
+
+    static long flushes() {
+        return COUNTS.get()[FLUSHES];
+    }
+
+    /** Created by Hibernate for every session (hibernate.session.events.auto). */
+    public static class StatementListener implements SessionEventListener {
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            COUNTS.get()[STATEMENTS]++;
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            COUNTS.get()[STATEMENTS]++;
+        }
+
+        @Override
+        public void flushEnd(int numberOfEntities, int numberOfCollections) {
+            COUNTS.get()[FLUSHES]++;
+        }
+    }
+
+    /** Adds the post-load listener to the session factory (hibernate.integrator_provider). */
+    public static class LoadCountingIntegrator implements Integrator {
+
+        private static final PostLoadEventListener LOAD_COUNTER = (PostLoadEvent event) -> COUNTS.get()[ENTITY_LOADS]++;
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry()
+                    .requireService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, LOAD_COUNTER);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
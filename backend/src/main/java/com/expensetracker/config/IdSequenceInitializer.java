@@ -0,0 +1,43 @@
+package com.expensetracker.config;
+
+import com.expensetracker.model.Expense;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+
+/**
+ * Moves the expense id sequence past ids that were assigned by the old auto-increment column.
+ * Runs once all beans (and therefore the schema update) are ready, before the web server accepts requests.
+ * Only MySQL needs this: it emulates the sequence with a one-row table that Hibernate seeds at 1.
+ */
+@Component
+public class IdSequenceInitializer implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM expenses", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        // The pooled optimizer hands out (value - allocationSize, value] for a stored value, so keep the whole block above maxId
+        long floor = maxId + Expense.ID_ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update("UPDATE " + Expense.ID_SEQUENCE + " SET next_val = ? WHERE next_val < ?", floor, floor);
+        if (updated > 0) {
+            logger.info("Advanced {} to {} (max existing expense id {})", Expense.ID_SEQUENCE, floor, maxId);
+        }
+    }
+}
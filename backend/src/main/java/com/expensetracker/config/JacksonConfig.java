@@ -1,15 +1,16 @@
 package com.expensetracker.config;
 
 import com.fasterxml.jackson.databind.Module;
-import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class JacksonConfig {
+    // Hibernate 6 uses jakarta.persistence; the hibernate5 module fails on the missing javax annotations
     @Bean
-    public Module hibernate5Module() {
-        Hibernate5Module module = new Hibernate5Module();
+    public Module hibernate6Module() {
+        Hibernate6Module module = new Hibernate6Module();
         return module;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package com.expensetracker.config;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The verified contents of a JWT, produced by a single parse in {@link JwtUtil#verify(String)}.
+ * {@code userId} is null for tokens issued before the id claim was added.
+ */
+public record JwtPrincipal(Long userId, String username, List<String> roles, Instant expiresAt) {
+
+    public JwtPrincipal {
+        roles = List.copyOf(roles);
+    }
+}
@@ -1,10 +1,16 @@
 package com.expensetracker.config;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -12,52 +18,107 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration:86400000}")
     private long expirationMillis;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // Optional so the class still works when constructed directly (tests, benchmarks)
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
+    // Both are immutable and thread-safe, so they are built once instead of on every call
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private Timer verifyValidTimer;
+    private Timer verifyInvalidTimer;
+    private Timer generateTimer;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+        MeterRegistry registry = (meterRegistry != null) ? meterRegistry : Metrics.globalRegistry;
+        verifyValidTimer = verifyTimer(registry, "valid");
+        verifyInvalidTimer = verifyTimer(registry, "invalid");
+        generateTimer = Timer.builder("auth.jwt.generate")
+                .description("Time to build and sign a JWT")
+                .register(registry);
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("auth.jwt.verify")
+                .description("Time to parse a JWT and check its signature and expiry")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Parses and verifies the token once (signature and expiry) and returns what it asserts,
+     * or empty if the token is malformed, forged or expired.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
+        long start = System.nanoTime();
+        Optional<JwtPrincipal> principal = parsePrincipal(token);
+        (principal.isPresent() ? verifyValidTimer : verifyInvalidTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return principal;
     }
 
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Optional<JwtPrincipal> parsePrincipal(String token) {
+        final Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return Optional.empty();
+        }
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return Optional.of(new JwtPrincipal(userId == null ? null : userId.longValue(), claims.getSubject(),
+                rolesOf(claims), claims.getExpiration().toInstant()));
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    private static List<String> rolesOf(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> values)) {
+            return List.of();
+        }
+        return values.stream().map(String::valueOf).toList();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("roles", userDetails.getAuthorities().stream()
+        if (userDetails instanceof AuthenticatedUser authenticatedUser) {
+            claims.put(USER_ID_CLAIM, authenticatedUser.getId());
+        }
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(java.util.stream.Collectors.toList()));
-        return createToken(claims, userDetails.getUsername());
+        return generateTimer.record(() -> createToken(claims, userDetails.getUsername()));
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
@@ -68,17 +129,7 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(now))
                 .setExpiration(new Date(now + expirationMillis))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
-
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package com.expensetracker.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Hooks HibernateRequestStats into Hibernate. The other meters register themselves where they are
+ * measured (JwtUtil, CustomUserDetailsService, TimedPasswordEncoder, RequestMetricsFilter), and
+ * repository query timings come from Spring Boot's spring.data.repository.invocations timer.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateRequestStatsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, HibernateRequestStats.StatementListener.class.getName());
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new HibernateRequestStats.LoadCountingIntegrator()));
+        };
+    }
+}
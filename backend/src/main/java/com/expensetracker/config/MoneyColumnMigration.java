@@ -0,0 +1,51 @@
+package com.expensetracker.config;
+
+import com.expensetracker.model.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+/**
+ * One-off migration from floating-point amounts to cents. The schema update has already added the
+ * amount_cents/total_cents columns by the time this runs; it copies expenses.amount across and drops
+ * the old columns. Rollup totals are derived data, so they are cleared and the rollup initializer
+ * rebuilds them from the converted expenses. Safe to re-run if interrupted.
+ */
+@Component
+public class MoneyColumnMigration implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(MoneyColumnMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (hasColumn("expenses", "amount")) {
+            BigDecimal unitsPerMajor = BigDecimal.TEN.pow(Money.SCALE);
+            int converted = jdbcTemplate.update("UPDATE expenses SET amount_cents = ROUND(amount * " + unitsPerMajor + ") WHERE amount IS NOT NULL");
+            jdbcTemplate.execute("ALTER TABLE expenses DROP COLUMN amount");
+            logger.info("Converted {} expense amounts to cents and dropped expenses.amount", converted);
+        }
+        if (hasColumn("expense_rollups", "total")) {
+            jdbcTemplate.update("DELETE FROM expense_rollups");
+            jdbcTemplate.execute("ALTER TABLE expense_rollups DROP COLUMN total");
+            logger.info("Dropped expense_rollups.total; rollups will be rebuilt in cents");
+        }
+    }
+
+    private boolean hasColumn(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) -> {
+            try (ResultSet columns = connection.getMetaData().getColumns(connection.getCatalog(), null, table, column)) {
+                return columns.next();
+            }
+        }));
+    }
+}
@@ -0,0 +1,180 @@
+package com.expensetracker.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/**
+ * Publishes per-endpoint payload and persistence metrics that http.server.requests does not cover:
+ * http.server.response.size (bytes written) and hibernate.request.statements / .entity.loads / .flushes.
+ * Runs ahead of the security chain so login and rejected requests are measured too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        HibernateRequestStats.reset();
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            Tags tags = Tags.of("method", request.getMethod(), "uri", uriOf(request));
+            record("hibernate.request.statements", "JDBC statements executed while handling a request", tags, HibernateRequestStats.statements());
+            record("hibernate.request.entity.loads", "Entities loaded while handling a request", tags, HibernateRequestStats.entityLoads());
+            record("hibernate.request.flushes", "Persistence context flushes while handling a request", tags, HibernateRequestStats.flushes());
+
+            if (request.isAsyncStarted()) {
+                // Streamed bodies are still being written; count them once the async request completes
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        recordSize(tags, countingResponse);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                recordSize(tags, countingResponse);
+            }
+        }
+    }
+
+    // Route template rather than the raw path, so ids do not explode the tag cardinality
+    private static String uriOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return (pattern != null) ? pattern.toString() : "UNMATCHED";
+    }
+
+    private void record(String name, String description, Tags tags, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+    }
+
+    private void recordSize(Tags tags, CountingResponse response) {
+        DistributionSummary.builder("http.server.response.size")
+                .description("Response body size")
+                .baseUnit("bytes")
+                .tags(tags.and("status", String.valueOf(response.getStatus())))
+                .register(meterRegistry)
+                .record(response.bytesWritten);
+    }
+
+    // Counts body bytes as they pass through instead of buffering them, so streamed responses stay streamed.
+    // Writer output is counted in characters, which matches bytes for the ASCII JSON the API produces.
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+
+        private volatile long bytesWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytesWritten++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytesWritten += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                Writer delegate = super.getWriter();
+                writer = new PrintWriter(new FilterWriter(delegate) {
+                    @Override
+                    public void write(int c) throws IOException {
+                        super.write(c);
+                        bytesWritten++;
+                    }
+
+                    @Override
+                    public void write(char[] cbuf, int off, int len) throws IOException {
+                        super.write(cbuf, off, len);
+                        bytesWritten += len;
+                    }
+
+                    @Override
+                    public void write(String str, int off, int len) throws IOException {
+                        super.write(str, off, len);
+                        bytesWritten += len;
+                    }
+                });
+            }
+            return writer;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.expensetracker.config;
 
 import com.expensetracker.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,7 +20,9 @@ import org.springframework.http.HttpMethod;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
 import java.util.Arrays;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,9 +40,25 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 0 means one per available processor
+    @Value("${app.auth.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${app.auth.hashing.queue-capacity:32}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.auth.hashing.max-wait-ms:2000}")
+    private long hashingMaxWaitMillis;
+
+    // BCrypt runs on its own bounded pool rather than on request threads; see BoundedPasswordEncoder
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = (hashingThreads > 0) ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry),
+                threads, hashingQueueCapacity, Duration.ofMillis(hashingMaxWaitMillis), meterRegistry);
     }
 
     @Bean
@@ -69,6 +89,8 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(auth -> auth
+                // Streaming responses complete on an ASYNC dispatch of a request that was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/error").permitAll()
@@ -1,8 +1,15 @@
 package com.expensetracker.config;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 
@@ -10,6 +17,23 @@ import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
 @EnableWebMvc 
 public class WebConfig implements WebMvcConfigurer {
 
+    @Value("${app.streaming.timeout-ms:600000}")
+    private long streamingTimeoutMillis;
+
+    @Value("${app.streaming.threads:4}")
+    private int streamingThreads;
+
+    @Value("${app.streaming.queue-capacity:8}")
+    private int streamingQueueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ThreadPoolTaskExecutor streamingExecutor;
+
+    @Autowired
+    private WriteBehindReadInterceptor writeBehindReadInterceptor;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -19,6 +43,42 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true);
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(writeBehindReadInterceptor).addPathPatterns("/api/**");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streamed responses (StreamingResponseBody) can run well past the container's default async timeout
+        configurer.setDefaultTimeout(streamingTimeoutMillis);
+        // @EnableWebMvc otherwise falls back to an unbounded SimpleAsyncTaskExecutor
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+
+    /**
+     * Runs streamed responses. Each stream holds a pooled connection for its whole run, so the pool is
+     * sized below Hikari's and its queue is bounded: once both are full a new stream is rejected (503 via
+     * GlobalExceptionHandler) rather than queued behind the others. Boot's applicationTaskExecutor is not
+     * used because its queue is unbounded, and this pool is not a bean because Boot stops defining that
+     * executor as soon as another one is registered.
+     */
+    @PostConstruct
+    void initStreamingExecutor() {
+        streamingExecutor = new ThreadPoolTaskExecutor();
+        streamingExecutor.setCorePoolSize(streamingThreads);
+        streamingExecutor.setMaxPoolSize(streamingThreads);
+        streamingExecutor.setQueueCapacity(streamingQueueCapacity);
+        streamingExecutor.setThreadNamePrefix("stream-");
+        streamingExecutor.setVirtualThreads(virtualThreads);
+        streamingExecutor.initialize();
+    }
+
+    @PreDestroy
+    void shutdownStreamingExecutor() {
+        streamingExecutor.shutdown();
+    }
+
     @Override
     public void configurePathMatch(PathMatchConfigurer configurer) {
         configurer.setUseTrailingSlashMatch(true);
@@ -0,0 +1,33 @@
+package com.expensetracker.config;
+
+import com.expensetracker.service.ExpenseWriteBehindService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Read-your-writes for write-behind creates: any request other than a POST waits until the user's
+ * acknowledged expenses are stored, so lists, summaries, updates and deletes all see them.
+ */
+@Component
+public class WriteBehindReadInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ExpenseWriteBehindService expenseWriteBehindService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!expenseWriteBehindService.isEnabled() || "POST".equals(request.getMethod())) {
+            return true;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            expenseWriteBehindService.awaitStored(user.getId());
+        }
+        return true;
+    }
+}
@@ -1,8 +1,13 @@
 package com.expensetracker.controller;
 
-import com.expensetracker.model.Expense;
 import com.expensetracker.model.User;
 import com.expensetracker.model.Role;
+import com.expensetracker.payload.AdminUserPage;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.payload.RollupVerificationDTO;
+import com.expensetracker.payload.SearchIndexStatusDTO;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseSearchIndex;
 import com.expensetracker.service.ExpenseService;
 import com.expensetracker.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,13 +28,35 @@ public class AdminController {
     @Autowired
     private ExpenseService expenseService;
 
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseSearchIndex expenseSearchIndex;
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // Paged overview with per-user expense count, total spend and last expense date;
+    // sort is one of id, username, role, expenseCount, totalSpend, lastExpenseDate
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<User> getAllUsers() {
-        return userService.getAllUsers();
+    public AdminUserPage getAllUsers(@RequestParam(defaultValue = "0") int page,
+                                     @RequestParam(defaultValue = "50") int size,
+                                     @RequestParam(defaultValue = "id") String sort,
+                                     @RequestParam(defaultValue = "asc") String direction,
+                                     @RequestParam(required = false) String search) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return userService.getUserSummaries(search, page, pageSize, sort, "desc".equalsIgnoreCase(direction));
     }
 
-    
+    @GetMapping("/expenses")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<ExpenseResponse> getExpensesByUserId(@RequestParam Long userId) {
+        return expenseService.getExpensesByUserId(userId);
+    }
 
     record RoleUpdateRequest(Role role) {}
 
@@ -43,4 +70,28 @@ public class AdminController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    @PostMapping("/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public RollupVerificationDTO rebuildRollups() {
+        return expenseRollupService.rebuild();
+    }
+
+    @GetMapping("/rollups/verify")
+    @PreAuthorize("hasRole('ADMIN')")
+    public RollupVerificationDTO verifyRollups() {
+        return expenseRollupService.verify();
+    }
+
+    @PostMapping("/search-index/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SearchIndexStatusDTO rebuildSearchIndex() {
+        return expenseSearchIndex.rebuild();
+    }
+
+    @GetMapping("/search-index")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SearchIndexStatusDTO getSearchIndexStatus() {
+        return expenseSearchIndex.status();
+    }
 }
@@ -1,5 +1,6 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.exception.ServiceBusyException;
 import com.expensetracker.model.User;
 import com.expensetracker.payload.AuthRequest;
 import com.expensetracker.payload.AuthResponse;
@@ -7,8 +8,10 @@ import com.expensetracker.payload.MessageResponse;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.config.JwtUtil;
 import com.expensetracker.service.CustomUserDetailsService;
+import com.expensetracker.service.LoginAttemptThrottle;
 import com.expensetracker.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,9 +36,11 @@ public class AuthController {
     @Autowired private PasswordEncoder passwordEncoder;
     @Autowired private JwtUtil jwtUtil;
     @Autowired private UserService userService;
+    @Autowired private LoginAttemptThrottle loginAttemptThrottle;
 
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody User user) {
+    public ResponseEntity<?> registerUser(@RequestBody User user, HttpServletRequest request) {
+        loginAttemptThrottle.acquireForAddress(request.getRemoteAddr());
         try {
             if (userRepository.findByUsername(user.getUsername()).isPresent()) {
                 return ResponseEntity.badRequest().body("Username already registered");
@@ -46,14 +51,18 @@ public class AuthController {
             logger.debug("User registered successfully: {}", registeredUser.getUsername());
             return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
         } catch (Exception e) {
+            rethrowIfBusy(e);
             logger.error("Registration error for user: {}", user.getUsername(), e);
             return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
+    public ResponseEntity<?> login(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
         logger.debug("Login attempt for user: {}", authRequest.getUsername());
+        // Both checks run before the password is, so refused attempts cost no hashing
+        loginAttemptThrottle.acquireForAddress(request.getRemoteAddr());
+        loginAttemptThrottle.checkUsername(authRequest.getUsername());
 
         try {
             authenticationManager.authenticate(
@@ -71,13 +80,24 @@ public class AuthController {
 
         } catch (BadCredentialsException e) {
             logger.error("Authentication failed for user: {}", authRequest.getUsername());
+            loginAttemptThrottle.recordFailure(authRequest.getUsername());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
         } catch (Exception e) {
+            rethrowIfBusy(e);
             logger.error("Login error for user: {}", authRequest.getUsername(), e);
             return ResponseEntity.internalServerError().body("An error occurred during authentication");
         }
     }
     
+    // A saturated hashing pool surfaces wrapped (e.g. in InternalAuthenticationServiceException); answer it as 503
+    private static void rethrowIfBusy(Exception e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ServiceBusyException busy) {
+                throw busy;
+            }
+        }
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logoutUser() {
         return ResponseEntity.ok(new MessageResponse("User logged out successfully!"));
@@ -0,0 +1,35 @@
+package com.expensetracker.controller;
+
+import com.expensetracker.config.AuthenticatedUser;
+import com.expensetracker.payload.DashboardDTO;
+import com.expensetracker.service.DashboardService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@CrossOrigin(origins = "http://localhost:3000") // adjust if needed
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    // Profile, category breakdown, month total and the year's monthly series in one response;
+    // year and month default to the current month
+    @GetMapping
+    public DashboardDTO getDashboard(@RequestParam(required = false) Integer year,
+                                     @RequestParam(required = false) Integer month,
+                                     @AuthenticationPrincipal AuthenticatedUser user) {
+        LocalDate today = LocalDate.now();
+        int y = (year == null) ? today.getYear() : year;
+        int m = (month == null) ? today.getMonthValue() : month;
+        if (m < 1 || m > 12) {
+            throw new IllegalArgumentException("month must be between 1 and 12");
+        }
+        return dashboardService.getDashboard(user.getId(), y, m);
+    }
+}
@@ -1,20 +1,49 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.config.AuthenticatedUser;
+import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Expense;
-import com.expensetracker.model.User;
-import com.expensetracker.repository.UserRepository;
+import com.expensetracker.payload.ExpenseAnalyticsDTO;
+import com.expensetracker.payload.ExpenseBatchResultDTO;
+import com.expensetracker.payload.ExpenseBulkRequest;
+import com.expensetracker.payload.ExpenseBulkResultDTO;
+import com.expensetracker.payload.ExpenseFilter;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.service.ExpenseAnalyticsService;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.ExpenseWriteBehindService;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.security.Principal;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/expenses")
@@ -23,51 +52,231 @@ public class ExpenseController {
 
     private static final Logger logger = LoggerFactory.getLogger(ExpenseController.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final MediaType CSV_MEDIA_TYPE = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     @Autowired
     private ExpenseService expenseService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ExpenseAnalyticsService expenseAnalyticsService;
+
+    @Autowired
+    private ExpenseWriteBehindService expenseWriteBehindService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     // CREATE
+    // With write-behind enabled the expense is logged and stored shortly after (202 with its id);
+    // the user's following requests wait until it is stored
     @PostMapping
-    public Expense addExpense(@RequestBody Expense expense, Principal principal) {
-        return expenseService.addExpense(expense, principal.getName());
+    public ResponseEntity<ExpenseResponse> addExpense(@RequestBody Expense expense, @AuthenticationPrincipal AuthenticatedUser user) {
+        if (expenseWriteBehindService.isEnabled()) {
+            return ResponseEntity.accepted().body(ExpenseResponse.of(expenseWriteBehindService.append(expense, user.getId())));
+        }
+        return ResponseEntity.ok(ExpenseResponse.of(expenseService.addExpense(expense, user.getId())));
+    }
+
+    // BULK CREATE: a JSON array or NDJSON (one expense per line), validated and inserted in batches as the body is read
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ExpenseBatchResultDTO addExpenses(HttpServletRequest request, @AuthenticationPrincipal AuthenticatedUser user) throws IOException {
+        try (MappingIterator<Expense> rows = objectMapper.readerFor(Expense.class).readValues(request.getInputStream())) {
+            return expenseService.addExpenses(rows, user.getId());
+        }
     }
 
     // READ ALL for logged-in user
+    // ?limit=&cursor= returns one keyset page; a malformed cursor is a 400
+    // ?category=&from=&to=&minAmount=&maxAmount=&prefix=&sort=&direction= (any of them) returns one
+    // filtered page, numbered by ?page=&size=
     @GetMapping
-    public List<Expense> getAllExpenses(Principal principal) {
-        return expenseService.getAllExpenses(principal.getName());
+    public ResponseEntity<?> getAllExpenses(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                            ExpenseFilter filter,
+                                            @AuthenticationPrincipal AuthenticatedUser user,
+                                            WebRequest webRequest) {
+        if (!filter.isEmpty()) {
+            if (page < 0) {
+                throw new IllegalArgumentException("page must not be negative");
+            }
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            return conditionalGet(user, webRequest, () -> expenseService.getFilteredExpenses(user.getId(), filter, page, pageSize));
+        }
+        if (limit == null && cursor == null) {
+            return conditionalGet(user, webRequest, () -> expenseService.getAllExpenses(user.getId()));
+        }
+
+        int pageSize = (limit == null) ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return conditionalGet(user, webRequest, () -> expenseService.getExpensePage(user.getId(), cursor, pageSize));
+    }
+
+    /**
+     * Answers 304 when If-None-Match carries the user's current data version, without reading any expenses.
+     * The version is read before the body, so a concurrent write can only make the ETag older than the
+     * body (costing one extra full response later), never newer.
+     */
+    private ResponseEntity<?> conditionalGet(AuthenticatedUser user, WebRequest webRequest, Supplier<?> body) {
+        // The user id is part of the tag so a browser shared between accounts never revalidates across them
+        String etag = "\"" + user.getId() + "-" + expenseService.getDataVersion(user.getId()) + "\"";
+        // no-cache: browsers may store the response but must revalidate it on every use
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(body.get());
+    }
+
+    // ?stream=true writes rows as they are read from the database
+    // (the body type must stay StreamingResponseBody for Spring to write it asynchronously)
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllExpenses(@AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(streamExpenses(user.getId()));
+    }
+
+    private StreamingResponseBody streamExpenses(Long userId) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.writeStartArray();
+                expenseService.streamExpenses(userId, expense -> {
+                    try {
+                        generator.writeObject(expense);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+
+    // EXPORT: the user's full history (optionally limited to [from, to], both inclusive) as CSV or NDJSON,
+    // written row by row from a database cursor so memory use does not grow with the number of expenses
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportExpenses(@RequestParam(defaultValue = "csv") String format,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @AuthenticationPrincipal AuthenticatedUser user) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Long userId = user.getId();
+        switch (format.toLowerCase(Locale.ROOT)) {
+            case "csv":
+                return exportResponse("expenses.csv", CSV_MEDIA_TYPE, out -> writeCsv(userId, from, to, out));
+            case "ndjson":
+                return exportResponse("expenses.ndjson", MediaType.APPLICATION_NDJSON, out -> writeNdjson(userId, from, to, out));
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    private static ResponseEntity<StreamingResponseBody> exportResponse(String filename, MediaType mediaType, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private void writeCsv(Long userId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,date,description,category,amount\r\n");
+        expenseService.exportExpenses(userId, from, to, expense -> {
+            try {
+                writer.write(String.valueOf(expense.id()));
+                writer.write(',');
+                writer.write(expense.date() == null ? "" : expense.date().toString());
+                writer.write(',');
+                writer.write(csvField(expense.description()));
+                writer.write(',');
+                writer.write(csvField(expense.category()));
+                writer.write(',');
+                writer.write(expense.amount().toPlainString());
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    // RFC 4180: quote fields containing a delimiter, quote or line break, doubling embedded quotes
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private void writeNdjson(Long userId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // Rows are separated by the newline written after each one, not by the default root separator
+            generator.setRootValueSeparator(null);
+            expenseService.exportExpenses(userId, from, to, expense -> {
+                try {
+                    generator.writeObject(expense);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    // SEARCH: expenses whose description contains every term of q (terms also match as word prefixes), best match first;
+    // optionally narrowed to categories and an inclusive [from, to] before paging
+    @GetMapping("/search")
+    public ResponseEntity<?> searchExpenses(@RequestParam String q,
+                                            @RequestParam(required = false) List<String> category,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size,
+                                            @AuthenticationPrincipal AuthenticatedUser user,
+                                            WebRequest webRequest) {
+        if (page < 0) {
+            throw new IllegalArgumentException("page must not be negative");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        return conditionalGet(user, webRequest, () -> expenseService.searchExpenses(user.getId(), q, category, from, to, page, pageSize));
+    }
+
+    // BULK UPDATE / DELETE: expenses selected by ids and/or category and [from, to], changed with one statement
+    @PatchMapping("/bulk")
+    public ExpenseBulkResultDTO updateExpenses(@RequestBody ExpenseBulkRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
+        return new ExpenseBulkResultDTO(expenseService.bulkUpdateCategory(user.getId(), request));
+    }
+
+    @DeleteMapping("/bulk")
+    public ExpenseBulkResultDTO deleteExpenses(@RequestBody ExpenseBulkRequest request, @AuthenticationPrincipal AuthenticatedUser user) {
+        return new ExpenseBulkResultDTO(expenseService.bulkDelete(user.getId(), request));
     }
 
     // READ BY ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getExpenseById(@PathVariable Long id, Principal principal) {
-        Expense expense = expenseService.getExpenseById(id, principal.getName());
-        return (expense != null) ? ResponseEntity.ok(expense) : ResponseEntity.notFound().build();
+    public ResponseEntity<?> getExpenseById(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        return ResponseEntity.ok(expenseService.getExpenseById(id, user.getId()));
     }
 
     // UPDATE
     @PutMapping("/{id}")
     public ResponseEntity<?> updateExpense(@PathVariable Long id,
                                            @RequestBody Expense payload,
-                                           Principal principal) {
+                                           @AuthenticationPrincipal AuthenticatedUser user) {
         try {
-            Optional<Expense> existingOptional = expenseService.findById(id);
-            if (existingOptional.isEmpty()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            Expense existing = existingOptional.get();
-
-            existing.setDescription(payload.getDescription());
-            existing.setAmount(payload.getAmount());
-            existing.setDate(payload.getDate());
-            existing.setCategory(payload.getCategory());
-
-            Expense saved = expenseService.save(existing);
-            return ResponseEntity.ok(saved);
+            Expense saved = expenseService.updateExpense(id, payload, user.getId());
+            return ResponseEntity.ok(ExpenseResponse.of(saved));
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Failed to update expense id=" + id, e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -76,22 +285,30 @@ public class ExpenseController {
 
     // DELETE
     @DeleteMapping("/{id}")
-    public ResponseEntity<?> deleteExpense(@PathVariable Long id, Principal principal) {
-        try {
-            expenseService.deleteExpense(id, principal.getName());
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            logger.error("Failed to delete expense id=" + id, e);
-            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
-        }
+    public ResponseEntity<?> deleteExpense(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser user) {
+        expenseService.deleteExpense(id, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    // ANALYTICS: totals for [from, to] (both inclusive) by day/week/month/quarter with year-over-year
+    // comparisons, plus optional trailing window-day sums, all from one grouped query
+    @GetMapping("/analytics")
+    public ResponseEntity<?> getAnalytics(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(defaultValue = "month") String granularity,
+                                          @RequestParam(required = false) Integer window,
+                                          @AuthenticationPrincipal AuthenticatedUser user,
+                                          WebRequest webRequest) {
+        ExpenseAnalyticsDTO.Granularity bucketSize = ExpenseAnalyticsDTO.Granularity.parse(granularity);
+        return conditionalGet(user, webRequest, () -> expenseAnalyticsService.getAnalytics(user.getId(), from, to, bucketSize, window));
     }
 
     @GetMapping("/summary/monthly/{year}")
-    public ResponseEntity<?> getMonthlyExpenseSummary(@PathVariable int year, Principal principal) {
+    public ResponseEntity<?> getMonthlyExpenseSummary(@PathVariable int year, @AuthenticationPrincipal AuthenticatedUser user, WebRequest webRequest) {
         try {
-            User user = userRepository.findByUsername(principal.getName()).orElseThrow(() -> new RuntimeException("User not found"));
-            var summary = expenseService.getMonthlyExpenseSummary(user.getId(), year);
-            return ResponseEntity.ok(summary);
+            return conditionalGet(user, webRequest, () -> expenseService.getMonthlyExpenseSummary(user.getId(), year));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Failed to get monthly expense summary for year=" + year, e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
@@ -99,14 +316,14 @@ public class ExpenseController {
     }
 
     @GetMapping("/summary/{year}/{month}")
-    public ResponseEntity<?> getExpenseSummary(@PathVariable int year, @PathVariable int month, Principal principal) {
+    public ResponseEntity<?> getExpenseSummary(@PathVariable int year, @PathVariable int month, @AuthenticationPrincipal AuthenticatedUser user, WebRequest webRequest) {
         try {
-            User user = userRepository.findByUsername(principal.getName()).orElseThrow(() -> new RuntimeException("User not found"));
-            var summary = expenseService.getExpenseSummaryByCategory(user.getId(), month, year);
-            return ResponseEntity.ok(summary);
+            return conditionalGet(user, webRequest, () -> expenseService.getExpenseSummaryByCategory(user.getId(), month, year));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             logger.error("Failed to get expense summary for year=" + year + ", month=" + month, e);
             return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
     }
-}
\ No newline at end of file
+}
@@ -4,6 +4,7 @@ import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.service.UserService;
 import com.expensetracker.payload.MessageResponse;
+import com.expensetracker.payload.UserProfileResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -27,12 +28,10 @@ public class UserController {
      */
     @GetMapping("/profile")
     public ResponseEntity<?> getProfile(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName())
+        // Selected as a projection, so the password hash is never read
+        UserProfileResponse profile = userRepository.findProfileByUsername(principal.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Hide sensitive data
-        user.setPassword(null);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(profile);
     }
 
     /**
@@ -47,10 +46,7 @@ public class UserController {
         user.setMonthlyIncome(userUpdate.getMonthlyIncome());
 
         User updatedUser = userService.save(user);
-
-        // Hide sensitive data
-        updatedUser.setPassword(null);
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok(UserProfileResponse.of(updatedUser));
     }
 
     /**
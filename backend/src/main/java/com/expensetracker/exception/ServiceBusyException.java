@@ -0,0 +1,19 @@
+package com.expensetracker.exception;
+
+/**
+ * A bounded resource is saturated and the request was shed instead of queued; answered with 503 and a
+ * Retry-After of {@code retryAfterSeconds}.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.expensetracker.exception;
+
+/**
+ * The caller has used up its attempt budget; answered with 429 and a Retry-After of {@code retryAfterSeconds}.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
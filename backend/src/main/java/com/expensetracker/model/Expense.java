@@ -1,20 +1,44 @@
 package com.expensetracker.model;
 
 import jakarta.persistence.*;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import com.fasterxml.jackson.annotation.JsonIgnore; 
 
 @Entity
-@Table(name = "expenses") // Add table annotation for clarity
+@Table(name = "expenses", indexes = {
+        // Serves keyset paging on (date, id) and the date-range reads (exports, daily totals) within one user's rows
+        @Index(name = "idx_expenses_user_date_id", columnList = "user_id, date, id"),
+        // Filtered listings (ExpenseSpecifications): category set, amount range and description prefix each
+        // seek their own index; a date range alone uses idx_expenses_user_date_id
+        @Index(name = "idx_expenses_user_category_date", columnList = "user_id, category, date"),
+        @Index(name = "idx_expenses_user_amount", columnList = "user_id, amount_cents"),
+        @Index(name = "idx_expenses_user_description", columnList = "user_id, description")
+})
 public class Expense {
 
+    // Ids come from a pooled sequence (a table on MySQL) so Hibernate can batch inserts; IDENTITY cannot be batched
+    public static final int ID_ALLOCATION_SIZE = 100;
+    public static final String ID_SEQUENCE = "expense_seq";
+
+    // Column widths; paths that bypass Hibernate (batch import, write-behind) check them up front
+    public static final int DESCRIPTION_LENGTH = 255;
+    public static final int CATEGORY_LENGTH = 255;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_id")
+    @SequenceGenerator(name = "expense_id", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
+    @Column(length = DESCRIPTION_LENGTH)
     private String description; 
-    private Double amount;
+
+    // Stored as cents; exposed to JSON as the decimal "amount"
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
+
     private LocalDate date;
+    @Column(length = CATEGORY_LENGTH)
     private String category; 
 
     @ManyToOne(fetch = FetchType.LAZY) // Keep lazy fetch
@@ -24,10 +48,10 @@ public class Expense {
 
     public Expense() {}
 
-    public Expense(Long id, String description, Double amount, LocalDate date, String category, User user) {
+    public Expense(Long id, String description, long amountCents, LocalDate date, String category, User user) {
         this.id = id;
         this.description = description;
-        this.amount = amount;
+        this.amountCents = amountCents;
         this.date = date;
         this.category = category;
         this.user = user;
@@ -50,12 +74,24 @@ public class Expense {
         this.description = description;
     }
 
-    public Double getAmount() {
-        return amount;
+    @JsonIgnore
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
+    }
+
+    public BigDecimal getAmount() {
+        return Money.fromMinorUnits(amountCents);
     }
 
-    public void setAmount(Double amount) {
-        this.amount = amount;
+    public void setAmount(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount is required");
+        }
+        this.amountCents = Money.toMinorUnits(amount);
     }
 
     public LocalDate getDate() {
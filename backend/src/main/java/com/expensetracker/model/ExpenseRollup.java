@@ -0,0 +1,109 @@
+package com.expensetracker.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Running total and row count of one user's expenses for a (year, month, category) bucket.
+ * Maintained by {@link com.expensetracker.service.ExpenseRollupService} alongside every expense write.
+ * Expenses without a category are counted under {@link #NO_CATEGORY}.
+ */
+@Entity
+@Table(name = "expense_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_expense_rollups_bucket", columnNames = {"user_id", "rollup_year", "rollup_month", "category"})
+})
+public class ExpenseRollup {
+
+    // The unique key treats NULLs as distinct, so a NULL category would let the same bucket be inserted twice
+    public static final String NO_CATEGORY = "";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain column rather than a relation: rollups are derived data and are cleared explicitly with the user
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "rollup_year", nullable = false)
+    private int year;
+
+    @Column(name = "rollup_month", nullable = false)
+    private int month;
+
+    @Column(nullable = false, length = Expense.CATEGORY_LENGTH)
+    private String category;
+
+    @Column(name = "total_cents", nullable = false)
+    private long totalCents;
+
+    @Column(name = "expense_count", nullable = false)
+    private long count;
+
+    public ExpenseRollup() {}
+
+    public ExpenseRollup(Long userId, int year, int month, String category, long totalCents, long count) {
+        this.userId = userId;
+        this.year = year;
+        this.month = month;
+        this.category = category;
+        this.totalCents = totalCents;
+        this.count = count;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
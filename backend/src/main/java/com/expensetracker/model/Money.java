@@ -0,0 +1,30 @@
+package com.expensetracker.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are held as a long count of minor units (cents) so sums are exact and need no boxing.
+ * The API keeps exchanging decimal numbers; these helpers convert at that boundary.
+ */
+public final class Money {
+
+    // Minor units per major unit are 10^SCALE
+    public static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount to minor units, rounding half-even past {@link #SCALE} places.
+     *
+     * @throws ArithmeticException if the amount does not fit in a long
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
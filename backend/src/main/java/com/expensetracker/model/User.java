@@ -1,12 +1,17 @@
 package com.expensetracker.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.expensetracker.config.CacheConfig;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Set; // Use Set for expenses
 
 @Entity
 @Table(name = "users")
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConfig.USERS_REGION)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -33,6 +38,13 @@ public class User {
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Expense> expenses; // Use Set for expenses
 
+    // Bumped with every change to this user's expenses; expense lists and summaries use it as their ETag.
+    // Only UserRepository.incrementDataVersion writes it, without touching the second-level cache, so a
+    // loaded User may hold an older value: read the current one with findDataVersionById
+    @JsonIgnore
+    @Column(name = "data_version", nullable = false, updatable = false)
+    private long dataVersion;
+
     // Getters & Setters
     public Long getId() {
         return id;
@@ -97,4 +109,8 @@ public class User {
     public void setExpenses(Set<Expense> expenses) {
         this.expenses = expenses;
     }
+
+    public long getDataVersion() {
+        return dataVersion;
+    }
 }
@@ -0,0 +1,9 @@
+package com.expensetracker.payload;
+
+import java.util.List;
+
+/**
+ * One page of the admin user overview; {@code page} is zero-based.
+ */
+public record AdminUserPage(List<AdminUserSummaryDTO> content, int page, int size, long totalElements, int totalPages) {
+}
@@ -0,0 +1,21 @@
+package com.expensetracker.payload;
+
+import com.expensetracker.model.Money;
+import com.expensetracker.model.Role;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One row of the admin user overview; {@code lastExpenseDate} is null for users without expenses.
+ */
+public record AdminUserSummaryDTO(Long id, String username, String email, Role role, long expenseCount,
+                                  @JsonIgnore long totalCents, LocalDate lastExpenseDate) {
+
+    @JsonProperty("totalSpend")
+    public BigDecimal totalSpend() {
+        return Money.fromMinorUnits(totalCents);
+    }
+}
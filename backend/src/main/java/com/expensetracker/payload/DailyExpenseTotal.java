@@ -0,0 +1,9 @@
+package com.expensetracker.payload;
+
+import java.time.LocalDate;
+
+/**
+ * One row of the per-day grouped query that analytics buckets and rolling windows are built from.
+ */
+public record DailyExpenseTotal(LocalDate date, long totalCents, long count) {
+}
@@ -0,0 +1,28 @@
+package com.expensetracker.payload;
+
+import com.expensetracker.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Everything the dashboard page shows for one month: profile basics, that month's category breakdown
+ * and total, and a Jan-Dec series for the month's year (months without expenses are zero).
+ */
+public record DashboardDTO(Profile profile,
+                           int year,
+                           int month,
+                           @JsonIgnore long monthTotalCents,
+                           List<ExpenseSummaryDTO> categories,
+                           List<MonthlyExpenseSummaryDTO> monthly) {
+
+    @JsonProperty("monthTotal")
+    public BigDecimal monthTotal() {
+        return Money.fromMinorUnits(monthTotalCents);
+    }
+
+    public record Profile(String username, String name, String email, Double monthlyIncome) {
+    }
+}
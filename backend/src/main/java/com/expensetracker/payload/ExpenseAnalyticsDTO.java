@@ -0,0 +1,69 @@
+package com.expensetracker.payload;
+
+import com.expensetracker.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Spending over an inclusive [from, to] range split into calendar buckets, each with the same span one
+ * year earlier. {@code rolling} holds one trailing {@code window}-day sum per day and is empty when no
+ * window was requested.
+ */
+public record ExpenseAnalyticsDTO(LocalDate from,
+                                  LocalDate to,
+                                  Granularity granularity,
+                                  Integer window,
+                                  @JsonIgnore long totalCents,
+                                  List<Bucket> buckets,
+                                  List<RollingSum> rolling) {
+
+    @JsonProperty("total")
+    public BigDecimal total() {
+        return Money.fromMinorUnits(totalCents);
+    }
+
+    public enum Granularity {
+        DAY, WEEK, MONTH, QUARTER;
+
+        public static Granularity parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported granularity: " + value);
+            }
+        }
+    }
+
+    // start and end are inclusive and clipped to the requested range; weeks start on Monday
+    public record Bucket(LocalDate start, LocalDate end, long count,
+                         @JsonIgnore long totalCents, @JsonIgnore long previousYearCents) {
+
+        @JsonProperty("total")
+        public BigDecimal total() {
+            return Money.fromMinorUnits(totalCents);
+        }
+
+        @JsonProperty("previousYearTotal")
+        public BigDecimal previousYearTotal() {
+            return Money.fromMinorUnits(previousYearCents);
+        }
+
+        @JsonProperty("yearOverYearChange")
+        public BigDecimal yearOverYearChange() {
+            return Money.fromMinorUnits(totalCents - previousYearCents);
+        }
+    }
+
+    public record RollingSum(LocalDate date, @JsonIgnore long sumCents) {
+
+        @JsonProperty("sum")
+        public BigDecimal sum() {
+            return Money.fromMinorUnits(sumCents);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.expensetracker.payload;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk expense import: one entry per input row, in input order.
+ */
+public record ExpenseBatchResultDTO(int accepted, int rejected, List<RowResult> rows) {
+
+    /**
+     * {@code id} is set for stored rows, {@code error} for rejected ones.
+     */
+    public record RowResult(int index, Long id, String error) {
+    }
+}
@@ -0,0 +1,11 @@
+package com.expensetracker.payload;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Selects the caller's expenses for a bulk change by {@code ids} and/or by {@code category} and an inclusive
+ * [from, to] date range; all given criteria must match. {@code newCategory} is the category PATCH assigns.
+ */
+public record ExpenseBulkRequest(List<Long> ids, List<String> category, LocalDate from, LocalDate to, String newCategory) {
+}
@@ -0,0 +1,7 @@
+package com.expensetracker.payload;
+
+/**
+ * Number of expenses a bulk update or delete changed.
+ */
+public record ExpenseBulkResultDTO(int affected) {
+}
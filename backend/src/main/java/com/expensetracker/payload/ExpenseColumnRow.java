@@ -0,0 +1,9 @@
+package com.expensetracker.payload;
+
+import java.time.LocalDate;
+
+/**
+ * The columns of an expense that the in-memory analytics cache keeps; loaded without materialising entities.
+ */
+public record ExpenseColumnRow(Long id, LocalDate date, long amountCents, String category) {
+}
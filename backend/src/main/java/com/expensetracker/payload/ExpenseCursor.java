@@ -0,0 +1,31 @@
+package com.expensetracker.payload;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paging through a user's expenses (newest first).
+ * Undated expenses come last and encode their date as "-".
+ */
+public record ExpenseCursor(LocalDate date, Long id) {
+
+    private static final String UNDATED = "-";
+
+    public String encode() {
+        String raw = (date == null ? UNDATED : date.toString()) + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ExpenseCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(':');
+            String date = raw.substring(0, sep);
+            return new ExpenseCursor(UNDATED.equals(date) ? null : LocalDate.parse(date), Long.valueOf(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.expensetracker.payload;
+
+/**
+ * The fields of an expense that the search index tokenizes; loaded without materialising entities.
+ */
+public record ExpenseDescriptionRow(Long id, String description) {
+}
@@ -0,0 +1,27 @@
+package com.expensetracker.payload;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Optional filters and ordering for a user's expenses, bound from query parameters. Dates and amounts
+ * are inclusive; the description prefix compares with the column's collation (case-insensitive under
+ * MySQL's default). Sort is one of date (default, newest first), amount, category, description.
+ */
+public record ExpenseFilter(List<String> category,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                            BigDecimal minAmount,
+                            BigDecimal maxAmount,
+                            String prefix,
+                            String sort,
+                            String direction) {
+
+    public boolean isEmpty() {
+        return (category == null || category.isEmpty()) && from == null && to == null && minAmount == null
+                && maxAmount == null && (prefix == null || prefix.isEmpty()) && sort == null && direction == null;
+    }
+}
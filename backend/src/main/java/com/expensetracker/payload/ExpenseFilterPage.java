@@ -0,0 +1,9 @@
+package com.expensetracker.payload;
+
+import java.util.List;
+
+/**
+ * One page of a filtered expense query.
+ */
+public record ExpenseFilterPage(List<ExpenseResponse> content, int page, int size, long totalElements, int totalPages) {
+}
@@ -0,0 +1,9 @@
+package com.expensetracker.payload;
+
+import java.util.List;
+
+/**
+ * One page of expenses; {@code nextCursor} is null on the last page.
+ */
+public record ExpensePage(List<ExpenseResponse> content, String nextCursor) {
+}
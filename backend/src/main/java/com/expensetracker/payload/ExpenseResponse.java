@@ -0,0 +1,24 @@
+package com.expensetracker.payload;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * An expense as the API returns it (same JSON as the entity). Read paths select it directly with a JPQL
+ * constructor expression, so no managed entity is loaded, dirty-checked or walked by Jackson.
+ */
+public record ExpenseResponse(Long id, String description, BigDecimal amount, LocalDate date, String category) {
+
+    // Constructor expressions select the stored cents
+    public ExpenseResponse(Long id, String description, long amountCents, LocalDate date, String category) {
+        this(id, description, Money.fromMinorUnits(amountCents), date, category);
+    }
+
+    public static ExpenseResponse of(Expense expense) {
+        return new ExpenseResponse(expense.getId(), expense.getDescription(), expense.getAmountCents(),
+                expense.getDate(), expense.getCategory());
+    }
+}
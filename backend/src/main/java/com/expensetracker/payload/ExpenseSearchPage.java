@@ -0,0 +1,9 @@
+package com.expensetracker.payload;
+
+import java.util.List;
+
+/**
+ * One page of description search results, best match first.
+ */
+public record ExpenseSearchPage(String query, List<ExpenseResponse> content, int page, int size, long totalElements, int totalPages) {
+}
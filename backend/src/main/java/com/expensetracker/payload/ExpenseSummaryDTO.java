@@ -1,12 +1,17 @@
 package com.expensetracker.payload;
 
+import com.expensetracker.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
 public class ExpenseSummaryDTO {
     private String category;
-    private Double total;
+    private long totalCents;
 
-    public ExpenseSummaryDTO(String category, Double total) {
+    public ExpenseSummaryDTO(String category, long totalCents) {
         this.category = category;
-        this.total = total;
+        this.totalCents = totalCents;
     }
 
     public String getCategory() {
@@ -17,11 +22,12 @@ public class ExpenseSummaryDTO {
         this.category = category;
     }
 
-    public Double getTotal() {
-        return total;
+    @JsonIgnore
+    public long getTotalCents() {
+        return totalCents;
     }
 
-    public void setTotal(Double total) {
-        this.total = total;
+    public BigDecimal getTotal() {
+        return Money.fromMinorUnits(totalCents);
     }
 }
@@ -1,4 +1,15 @@
 package com.expensetracker.payload;
 
-public record MonthlyExpenseSummaryDTO(int month, double totalAmount) {
+import com.expensetracker.model.Money;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+public record MonthlyExpenseSummaryDTO(int month, @JsonIgnore long totalCents) {
+
+    @JsonProperty("totalAmount")
+    public BigDecimal totalAmount() {
+        return Money.fromMinorUnits(totalCents);
+    }
 }
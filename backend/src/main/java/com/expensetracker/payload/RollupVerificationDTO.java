@@ -0,0 +1,11 @@
+package com.expensetracker.payload;
+
+/**
+ * Outcome of comparing the expense rollup table against a fresh aggregation of the raw expenses.
+ */
+public record RollupVerificationDTO(int buckets, int mismatches) {
+
+    public boolean isConsistent() {
+        return mismatches == 0;
+    }
+}
@@ -0,0 +1,7 @@
+package com.expensetracker.payload;
+
+/**
+ * How many users the expense search index holds and its estimated heap use against the budget.
+ */
+public record SearchIndexStatusDTO(int users, long usedBytes, long maxBytes) {
+}
@@ -0,0 +1,15 @@
+package com.expensetracker.payload;
+
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+
+/**
+ * The signed-in user's profile; never carries the password hash.
+ */
+public record UserProfileResponse(Long id, String username, String email, String name, Double monthlyIncome, Role role) {
+
+    public static UserProfileResponse of(User user) {
+        return new UserProfileResponse(user.getId(), user.getUsername(), user.getEmail(), user.getName(),
+                user.getMonthlyIncome(), user.getRole());
+    }
+}
@@ -0,0 +1,14 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Set-based writes over a {@link Specification}; mixed into {@link ExpenseRepository}. Deletes use
+ * {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor#delete(Specification)}.
+ */
+public interface ExpenseBulkRepository {
+
+    // One UPDATE statement; returns the number of rows changed
+    int updateCategory(Specification<Expense> specification, String category);
+}
@@ -0,0 +1,28 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+class ExpenseBulkRepositoryImpl implements ExpenseBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateCategory(Specification<Expense> specification, String category) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Expense> update = cb.createCriteriaUpdate(Expense.class);
+        Root<Expense> root = update.from(Expense.class);
+        update.set(root.<String>get("category"), category);
+        // Specifications are written against a select; like SimpleJpaRepository.delete, hand them a throwaway one
+        update.where(specification.toPredicate(root, cb.createQuery(Expense.class), cb));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
@@ -0,0 +1,20 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Specification queries that select {@link ExpenseResponse} rows instead of entities; mixed into
+ * {@link ExpenseRepository}.
+ */
+public interface ExpenseProjectionRepository {
+
+    Page<ExpenseResponse> findResponses(Specification<Expense> specification, Pageable pageable);
+
+    List<Long> findIds(Specification<Expense> specification);
+}
@@ -1,21 +1,74 @@
 package com.expensetracker.repository;
 
 import com.expensetracker.model.Expense;
-import com.expensetracker.payload.ExpenseSummaryDTO;
-import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import com.expensetracker.payload.DailyExpenseTotal;
+import com.expensetracker.payload.ExpenseColumnRow;
+import com.expensetracker.payload.ExpenseDescriptionRow;
+import com.expensetracker.payload.ExpenseResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ExpenseRepository extends JpaRepository<Expense, Long> {
+// Filtered listings compose ExpenseSpecifications, selected as ExpenseResponse by ExpenseProjectionRepository;
+// bulk changes apply them as single UPDATE/DELETE statements
+public interface ExpenseRepository extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense>,
+        ExpenseProjectionRepository, ExpenseBulkRepository {
     List<Expense> findByUserId(Long userId);
-    
 
-    @Query("SELECT new com.expensetracker.payload.ExpenseSummaryDTO(e.category, SUM(e.amount)) FROM Expense e WHERE e.user.id = :userId AND MONTH(e.date) = :month AND YEAR(e.date) = :year GROUP BY e.category")
-    List<ExpenseSummaryDTO> findExpenseSummaryByCategory(@Param("userId") Long userId, @Param("month") int month, @Param("year") int year);
+    // Read paths select ExpenseResponse directly, so listing never loads (or dirty-checks) an entity
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId")
+    List<ExpenseResponse> findResponsesByUserId(@Param("userId") Long userId);
 
-    @Query("SELECT new com.expensetracker.payload.MonthlyExpenseSummaryDTO(MONTH(e.date), SUM(e.amount)) FROM Expense e WHERE e.user.id = :userId AND YEAR(e.date) = :year GROUP BY MONTH(e.date)")
-    List<MonthlyExpenseSummaryDTO> findMonthlyExpenseSummary(@Param("userId") Long userId, @Param("year") int year);
-}
\ No newline at end of file
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.id = :id AND e.user.id = :userId")
+    Optional<ExpenseResponse> findResponseByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId AND e.id IN :ids")
+    List<ExpenseResponse> findResponsesByUserIdAndIdIn(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: newest first, seeking on (date, id) so deep pages cost the same as the first one
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseResponse> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Undated expenses sort after every dated one under date DESC (MySQL and H2 both order NULL lowest),
+    // so the seek past a dated row must include them, and once inside them only the id moves
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId AND (e.date < :date OR e.date IS NULL OR (e.date = :date AND e.id < :id)) ORDER BY e.date DESC, e.id DESC")
+    List<ExpenseResponse> findPageByUserIdAfter(@Param("userId") Long userId, @Param("date") LocalDate date, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId AND e.date IS NULL AND e.id < :id ORDER BY e.id DESC")
+    List<ExpenseResponse> findUndatedPageByUserIdAfter(@Param("userId") Long userId, @Param("id") Long id, Pageable pageable);
+
+    // Must be consumed inside a transaction and closed by the caller
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId ORDER BY e.date DESC, e.id DESC")
+    Stream<ExpenseResponse> streamByUserId(@Param("userId") Long userId);
+
+    // Export order is oldest first over a half-open [from, to) range; same consumption rules as streamByUserId
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.expensetracker.payload.ExpenseResponse(e.id, e.description, e.amountCents, e.date, e.category) FROM Expense e WHERE e.user.id = :userId AND e.date >= :from AND e.date < :to ORDER BY e.date, e.id")
+    Stream<ExpenseResponse> streamByUserIdAndDateRange(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Column projection for ExpenseColumnCache; same consumption rules as streamByUserId
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.expensetracker.payload.ExpenseColumnRow(e.id, e.date, e.amountCents, e.category) FROM Expense e WHERE e.user.id = :userId")
+    Stream<ExpenseColumnRow> streamColumnsByUserId(@Param("userId") Long userId);
+
+    // Description projection for ExpenseSearchIndex; same consumption rules as streamByUserId
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.expensetracker.payload.ExpenseDescriptionRow(e.id, e.description) FROM Expense e WHERE e.user.id = :userId")
+    Stream<ExpenseDescriptionRow> streamDescriptionsByUserId(@Param("userId") Long userId);
+
+    // One row per day with spending in [from, to), oldest first; analytics derives every bucket and window from it
+    @Query("SELECT new com.expensetracker.payload.DailyExpenseTotal(e.date, SUM(e.amountCents), COUNT(e)) FROM Expense e WHERE e.user.id = :userId AND e.date >= :from AND e.date < :to GROUP BY e.date ORDER BY e.date")
+    List<DailyExpenseTotal> findDailyTotals(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -0,0 +1,78 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.model.ExpenseRollup;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ExpenseRollupRepository extends JpaRepository<ExpenseRollup, Long> {
+
+    // Creates the bucket or adds to it in one statement, so concurrent writers cannot both try to insert it (MySQL 8.0.19+)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense_rollups"))
+    @Query(value = "INSERT INTO expense_rollups (user_id, rollup_year, rollup_month, category, total_cents, expense_count) VALUES (:userId, :year, :month, :category, :amountCents, :count) AS n "
+            + "ON DUPLICATE KEY UPDATE total_cents = total_cents + n.total_cents, expense_count = expense_count + n.expense_count", nativeQuery = true)
+    int addToBucket(@Param("userId") Long userId, @Param("year") int year, @Param("month") int month, @Param("category") String category,
+                    @Param("amountCents") long amountCents, @Param("count") long count);
+
+    // Standard-SQL form of addToBucket for databases without ON DUPLICATE KEY UPDATE row aliases (H2 in tests)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "expense_rollups"))
+    @Query(value = "MERGE INTO expense_rollups r USING (VALUES (:userId, :year, :month, :category, :amountCents, :count)) "
+            + "AS n (user_id, rollup_year, rollup_month, category, total_cents, expense_count) "
+            + "ON r.user_id = n.user_id AND r.rollup_year = n.rollup_year AND r.rollup_month = n.rollup_month AND r.category = n.category "
+            + "WHEN MATCHED THEN UPDATE SET total_cents = r.total_cents + n.total_cents, expense_count = r.expense_count + n.expense_count "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, rollup_year, rollup_month, category, total_cents, expense_count) "
+            + "VALUES (n.user_id, n.rollup_year, n.rollup_month, n.category, n.total_cents, n.expense_count)", nativeQuery = true)
+    int mergeIntoBucket(@Param("userId") Long userId, @Param("year") int year, @Param("month") int month, @Param("category") String category,
+                        @Param("amountCents") long amountCents, @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM ExpenseRollup r WHERE r.userId = :userId AND r.year = :year AND r.month = :month AND r.category = :category AND r.count <= 0")
+    int deleteEmptyBucket(@Param("userId") Long userId, @Param("year") int year, @Param("month") int month, @Param("category") String category);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ExpenseRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM ExpenseRollup r")
+    int deleteAllBuckets();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO ExpenseRollup (userId, year, month, category, totalCents, count) SELECT e.user.id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, ''), COALESCE(SUM(e.amountCents), 0), COUNT(e) FROM Expense e WHERE e.date IS NOT NULL GROUP BY e.user.id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, '')")
+    int rebuildFromExpenses();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("INSERT INTO ExpenseRollup (userId, year, month, category, totalCents, count) SELECT e.user.id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, ''), COALESCE(SUM(e.amountCents), 0), COUNT(e) FROM Expense e WHERE e.user.id = :userId AND e.date IS NOT NULL GROUP BY e.user.id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, '')")
+    int rebuildFromExpensesForUser(@Param("userId") Long userId);
+
+    // Dashboard and summary endpoints read these; query-cached until expense_rollups is next written.
+    // The missing-category bucket is reported as a null category, as when summing the expenses directly
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.EXPENSE_SUMMARIES_REGION)
+    })
+    @Query("SELECT new com.expensetracker.payload.ExpenseSummaryDTO(NULLIF(r.category, ''), r.totalCents) FROM ExpenseRollup r WHERE r.userId = :userId AND r.year = :year AND r.month = :month")
+    List<ExpenseSummaryDTO> findCategorySummary(@Param("userId") Long userId, @Param("year") int year, @Param("month") int month);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheConfig.EXPENSE_SUMMARIES_REGION)
+    })
+    @Query("SELECT new com.expensetracker.payload.MonthlyExpenseSummaryDTO(r.month, SUM(r.totalCents)) FROM ExpenseRollup r WHERE r.userId = :userId AND r.year = :year GROUP BY r.month ORDER BY r.month")
+    List<MonthlyExpenseSummaryDTO> findMonthlySummary(@Param("userId") Long userId, @Param("year") int year);
+
+    // Same bucket shape as the rollup, aggregated from the raw expenses, for verification
+    @Query("SELECT e.user.id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, ''), COALESCE(SUM(e.amountCents), 0), COUNT(e) FROM Expense e WHERE e.date IS NOT NULL GROUP BY e.user.id, YEAR(e.date), MONTH(e.date), COALESCE(e.category, '')")
+    List<Object[]> aggregateExpensesByBucket();
+}
@@ -0,0 +1,54 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Composable criteria for {@link ExpenseRepository#findAll(Specification, org.springframework.data.domain.Pageable)}.
+ * Each one is a plain comparison on a column so it can seek one of the (user_id, ...) indexes on
+ * {@link Expense}; combine them with {@link #belongsTo(Long)} so every query stays within one user's rows.
+ */
+public final class ExpenseSpecifications {
+
+    private ExpenseSpecifications() {
+    }
+
+    public static Specification<Expense> belongsTo(Long userId) {
+        // Compares the foreign key column; no join to users
+        return (root, query, cb) -> cb.equal(root.get("user").get("id"), userId);
+    }
+
+    public static Specification<Expense> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Expense> categoryIn(Collection<String> categories) {
+        return (root, query, cb) -> root.get("category").in(categories);
+    }
+
+    public static Specification<Expense> dateOnOrAfter(LocalDate from) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    // Exclusive, so a day is [day, day + 1) and the bound stays a range on the bare column
+    public static Specification<Expense> dateBefore(LocalDate to) {
+        return (root, query, cb) -> cb.lessThan(root.get("date"), to);
+    }
+
+    public static Specification<Expense> amountAtLeast(long cents) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("amountCents"), cents);
+    }
+
+    public static Specification<Expense> amountAtMost(long cents) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("amountCents"), cents);
+    }
+
+    // A leading-constant LIKE is a range on the index; wrapping the column in LOWER() would not be
+    public static Specification<Expense> descriptionStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(root.get("description"), pattern, '\\');
+    }
+}
@@ -1,12 +1,52 @@
 package com.expensetracker.repository;
 
 import com.expensetracker.model.User;
+import com.expensetracker.payload.AdminUserSummaryDTO;
+import com.expensetracker.payload.UserProfileResponse;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query; // Keep if needed for other queries, otherwise can remove
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param; // Keep if needed for other queries, otherwise can remove
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    @Query("SELECT new com.expensetracker.payload.UserProfileResponse(u.id, u.username, u.email, u.name, u.monthlyIncome, u.role) FROM User u WHERE u.username = :username")
+    Optional<UserProfileResponse> findProfileByUsername(@Param("username") String username);
+
+    // Must run in the transaction that changes the user's expenses, so the new version commits with them.
+    // Native with a query space no entity or cached query uses: a JPQL update would evict the whole users
+    // cache region on every expense write. Cached Users keep the old version (see User.dataVersion)
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "users_data_version"))
+    @Query(value = "UPDATE users SET data_version = data_version + 1 WHERE id = :id", nativeQuery = true)
+    int incrementDataVersion(@Param("id") Long id);
+
+    // The username as committed: no flush first, so a pending rename in the persistence context is not seen
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+    @Query("SELECT u.username FROM User u WHERE u.id = :id")
+    Optional<String> findStoredUsernameById(@Param("id") Long id);
+
+    @Query("SELECT u.dataVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findDataVersionById(@Param("id") Long id);
+
+    // Most frequently changed users first; the search index warms up in this order
+    @Query("SELECT u.id FROM User u ORDER BY u.dataVersion DESC, u.id")
+    List<Long> findIdsByDataVersionDesc();
+
+    // Admin overview: one grouped LEFT JOIN per page; pattern is a lower-case LIKE pattern or null for everyone
+    @Query(value = "SELECT new com.expensetracker.payload.AdminUserSummaryDTO(u.id, u.username, u.email, u.role, COUNT(e.id), COALESCE(SUM(e.amountCents), 0), MAX(e.date))"
+            + " FROM User u LEFT JOIN u.expenses e"
+            + " WHERE (:pattern IS NULL OR LOWER(u.username) LIKE :pattern OR LOWER(u.email) LIKE :pattern)"
+            + " GROUP BY u.id, u.username, u.email, u.role",
+            countQuery = "SELECT COUNT(u) FROM User u WHERE (:pattern IS NULL OR LOWER(u.username) LIKE :pattern OR LOWER(u.email) LIKE :pattern)")
+    Page<AdminUserSummaryDTO> findAdminSummaries(@Param("pattern") String pattern, Pageable pageable);
 }
\ No newline at end of file
@@ -1,8 +1,15 @@
 package com.expensetracker.service;
 
+import com.expensetracker.config.AuthenticatedUser;
+import com.expensetracker.config.CacheConfig;
 import com.expensetracker.model.User;
 import com.expensetracker.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +18,7 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.List;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
@@ -18,11 +26,52 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer credentialLookupTimer;
+    private Timer authenticatedLookupTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        credentialLookupTimer = lookupTimer("credentials");
+        // Only cache misses reach the method body; hits show up in the cache.gets metric instead
+        authenticatedLookupTimer = lookupTimer("authenticated");
+    }
+
+    private Timer lookupTimer(String purpose) {
+        return Timer.builder("auth.user.lookup")
+                .description("Time to load a user from the database for authentication")
+                .tag("purpose", purpose)
+                .register(meterRegistry);
+    }
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = credentialLookupTimer.record(() -> findUser(username));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), user.getPassword(), authoritiesOf(user));
+    }
+
+    /**
+     * Looks up an already-authenticated (JWT) user for the request filter. The result is cached and carries
+     * no password hash, so it must not be used for credential checks; those go through loadUserByUsername.
+     */
+    @Cacheable(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username")
+    public AuthenticatedUser loadAuthenticatedUser(String username) throws UsernameNotFoundException {
+        User user = authenticatedLookupTimer.record(() -> findUser(username));
+        return new AuthenticatedUser(user.getId(), user.getUsername(), "", authoritiesOf(user));
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS_CACHE, key = "#username")
+    public void evictUser(String username) {
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
-        GrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + user.getRole().name());
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), Collections.singletonList(authority));
     }
-}
\ No newline at end of file
+
+    private static List<GrantedAuthority> authoritiesOf(User user) {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.expensetracker.service;
+
+import com.expensetracker.payload.DashboardDTO;
+
+public interface DashboardService {
+    DashboardDTO getDashboard(Long userId, int year, int month);
+}
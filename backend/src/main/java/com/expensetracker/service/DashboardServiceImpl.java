@@ -0,0 +1,82 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.ResourceNotFoundException;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.DashboardDTO;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import com.expensetracker.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class DashboardServiceImpl implements DashboardService {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * The breakdown and the series come from the same reads as the summary endpoints (the column cache,
+     * else the rollup), run inline: each is a single cached lookup or index read, so handing them to
+     * another pool would only add a queue to wait in. The user's data version is read before them and
+     * checked again afterwards; if an expense write committed in between, the page is re-read in a single
+     * read-only transaction so the breakdown and the series never disagree. The version comes from the
+     * database rather than the profile, which may be served from the second-level cache.
+     */
+    @Override
+    public DashboardDTO getDashboard(Long userId, int year, int month) {
+        long version = userRepository.findDataVersionById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        DashboardDTO dashboard = read(userId, year, month);
+
+        if (userRepository.findDataVersionById(userId).orElse(-1L) == version) {
+            return dashboard;
+        }
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> read(userId, year, month));
+    }
+
+    private DashboardDTO read(Long userId, int year, int month) {
+        return assemble(findUser(userId), year, month,
+                expenseService.getExpenseSummaryByCategory(userId, month, year),
+                expenseService.getMonthlyExpenseSummary(userId, year));
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+
+    private static DashboardDTO assemble(User user, int year, int month,
+                                         List<ExpenseSummaryDTO> categories, List<MonthlyExpenseSummaryDTO> monthly) {
+        long monthTotalCents = 0;
+        for (ExpenseSummaryDTO category : categories) {
+            monthTotalCents += category.getTotalCents();
+        }
+
+        // Index 0 is unused so months index directly
+        long[] monthTotals = new long[13];
+        for (MonthlyExpenseSummaryDTO summary : monthly) {
+            monthTotals[summary.month()] = summary.totalCents();
+        }
+        List<MonthlyExpenseSummaryDTO> series = new ArrayList<>(12);
+        for (int m = 1; m <= 12; m++) {
+            series.add(new MonthlyExpenseSummaryDTO(m, monthTotals[m]));
+        }
+
+        DashboardDTO.Profile profile = new DashboardDTO.Profile(user.getUsername(), user.getName(), user.getEmail(), user.getMonthlyIncome());
+        return new DashboardDTO(profile, year, month, monthTotalCents, categories, series);
+    }
+}
@@ -0,0 +1,9 @@
+package com.expensetracker.service;
+
+import com.expensetracker.payload.ExpenseAnalyticsDTO;
+
+import java.time.LocalDate;
+
+public interface ExpenseAnalyticsService {
+    ExpenseAnalyticsDTO getAnalytics(Long userId, LocalDate from, LocalDate to, ExpenseAnalyticsDTO.Granularity granularity, Integer window);
+}
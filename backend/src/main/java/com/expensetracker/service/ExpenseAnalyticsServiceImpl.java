@@ -0,0 +1,132 @@
+package com.expensetracker.service;
+
+import com.expensetracker.payload.DailyExpenseTotal;
+import com.expensetracker.payload.ExpenseAnalyticsDTO;
+import com.expensetracker.payload.ExpenseAnalyticsDTO.Granularity;
+import com.expensetracker.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds every bucket, year-over-year comparison and rolling window from one grouped per-day query.
+ * The daily rows are turned into prefix sums, so any span's total is a single subtraction and the
+ * work is linear in the number of days whatever the granularity or window.
+ */
+@Service
+public class ExpenseAnalyticsServiceImpl implements ExpenseAnalyticsService {
+
+    // Bounds the prefix-sum arrays: about 20 years of days, plus the year before for comparisons
+    static final int MAX_RANGE_DAYS = 7320;
+    static final int MAX_WINDOW_DAYS = 366;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseColumnCache expenseColumnCache;
+
+    @Override
+    public ExpenseAnalyticsDTO getAnalytics(Long userId, LocalDate from, LocalDate to, Granularity granularity, Integer window) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+        if (window != null && (window < 1 || window > MAX_WINDOW_DAYS)) {
+            throw new IllegalArgumentException("window must be between 1 and " + MAX_WINDOW_DAYS + " days");
+        }
+
+        // Scan far enough back to cover the previous-year spans and the first rolling window
+        LocalDate scanStart = from.minusYears(1);
+        if (window != null && from.minusDays(window - 1).isBefore(scanStart)) {
+            scanStart = from.minusDays(window - 1);
+        }
+        LocalDate scanFrom = scanStart;
+        List<DailyExpenseTotal> days = expenseColumnCache.dailyTotals(userId, scanFrom, to.plusDays(1))
+                .orElseGet(() -> expenseRepository.findDailyTotals(userId, scanFrom, to.plusDays(1)));
+        DailyPrefixSums sums = new DailyPrefixSums(scanStart, to, days);
+
+        List<ExpenseAnalyticsDTO.Bucket> buckets = new ArrayList<>();
+        for (LocalDate start = from; !start.isAfter(to); ) {
+            LocalDate end = bucketEnd(start, granularity);
+            if (end.isAfter(to)) {
+                end = to;
+            }
+            buckets.add(new ExpenseAnalyticsDTO.Bucket(start, end, sums.count(start, end), sums.cents(start, end),
+                    sums.cents(start.minusYears(1), end.minusYears(1))));
+            start = end.plusDays(1);
+        }
+
+        List<ExpenseAnalyticsDTO.RollingSum> rolling = Collections.emptyList();
+        if (window != null) {
+            rolling = new ArrayList<>((int) ChronoUnit.DAYS.between(from, to) + 1);
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                rolling.add(new ExpenseAnalyticsDTO.RollingSum(day, sums.cents(day.minusDays(window - 1), day)));
+            }
+        }
+
+        return new ExpenseAnalyticsDTO(from, to, granularity, window, sums.cents(from, to), buckets, rolling);
+    }
+
+    private static LocalDate bucketEnd(LocalDate start, Granularity granularity) {
+        switch (granularity) {
+            case DAY:
+                return start;
+            case WEEK:
+                return start.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTH:
+                return start.with(TemporalAdjusters.lastDayOfMonth());
+            case QUARTER:
+                int quarterEndMonth = ((start.getMonthValue() - 1) / 3) * 3 + 3;
+                return start.withMonth(quarterEndMonth).with(TemporalAdjusters.lastDayOfMonth());
+            default:
+                throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+        }
+    }
+
+    // Running totals per day from the scan start; slot i holds everything before day i
+    private static final class DailyPrefixSums {
+
+        private final long firstDay;
+        private final long[] cents;
+        private final long[] counts;
+
+        DailyPrefixSums(LocalDate first, LocalDate last, List<DailyExpenseTotal> days) {
+            firstDay = first.toEpochDay();
+            int length = (int) (last.toEpochDay() - firstDay) + 2;
+            cents = new long[length];
+            counts = new long[length];
+            for (DailyExpenseTotal day : days) {
+                int slot = (int) (day.date().toEpochDay() - firstDay) + 1;
+                cents[slot] = day.totalCents();
+                counts[slot] = day.count();
+            }
+            for (int i = 1; i < length; i++) {
+                cents[i] += cents[i - 1];
+                counts[i] += counts[i - 1];
+            }
+        }
+
+        // Inclusive span; callers never ask for days outside the scanned range
+        long cents(LocalDate start, LocalDate end) {
+            return cents[slotAfter(end)] - cents[slotAfter(start) - 1];
+        }
+
+        long count(LocalDate start, LocalDate end) {
+            return counts[slotAfter(end)] - counts[slotAfter(start) - 1];
+        }
+
+        private int slotAfter(LocalDate day) {
+            return (int) (day.toEpochDay() - firstDay) + 1;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.DailyExpenseTotal;
+import com.expensetracker.payload.ExpenseColumnRow;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Opt-in, off-heap column store of each active user's expenses (id, epoch day, cents, category id)
+ * that summaries and analytics scan instead of querying the database. Users are loaded lazily and
+ * evicted whole, least recently used first, once the direct buffers exceed the byte budget. Write hooks
+ * and reads follow the user's data version as described in {@link VersionedUserCache}.
+ */
+@Service
+public class ExpenseColumnCache {
+
+    // id (8) + epoch day (4) + amount cents (8) + category id (4) + two id index slots (8)
+    static final int BYTES_PER_ROW = 32;
+    // Heap per distinct category (map node, boxed id, String, list slot), plus two bytes per character
+    static final int CATEGORY_BYTES = 96;
+    // Power of two, and capacities only ever double, so the id index can mask instead of dividing
+    private static final int MIN_CAPACITY = 64;
+    // Stands in for a missing date; falls outside every range scan
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.expenses.column-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.expenses.column-cache.max-bytes:64MB}")
+    private DataSize maxBytes;
+
+    private VersionedUserCache<ExpenseColumnRow, UserColumns> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new VersionedUserCache<>("column cache", maxBytes.toBytes(), userRepository, transactionManager,
+                expenseRepository::streamColumnsByUserId, UserColumns::new);
+    }
+
+    /**
+     * Per-day totals for [from, to) from the cached columns, or empty when the cache is disabled or the
+     * user's expenses do not fit in the budget (callers then query the database).
+     */
+    public Optional<List<DailyExpenseTotal>> dailyTotals(Long userId, LocalDate from, LocalDate to) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        UserColumns columns = cache.current(userId);
+        if (columns == null) {
+            return Optional.empty();
+        }
+        synchronized (columns) {
+            return Optional.of(columns.dailyTotals(from, to));
+        }
+    }
+
+    public Optional<List<ExpenseSummaryDTO>> categoryTotals(Long userId, LocalDate from, LocalDate to) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        UserColumns columns = cache.current(userId);
+        if (columns == null) {
+            return Optional.empty();
+        }
+        synchronized (columns) {
+            return Optional.of(columns.categoryTotals(from, to));
+        }
+    }
+
+    public Optional<List<MonthlyExpenseSummaryDTO>> monthlyTotals(Long userId, int year) {
+        return dailyTotals(userId, LocalDate.of(year, 1, 1), LocalDate.of(year + 1, 1, 1)).map(days -> {
+            long[] months = new long[13];
+            boolean[] seen = new boolean[13];
+            for (DailyExpenseTotal day : days) {
+                months[day.date().getMonthValue()] += day.totalCents();
+                seen[day.date().getMonthValue()] = true;
+            }
+            List<MonthlyExpenseSummaryDTO> result = new ArrayList<>();
+            for (int month = 1; month <= 12; month++) {
+                if (seen[month]) {
+                    result.add(new MonthlyExpenseSummaryDTO(month, months[month]));
+                }
+            }
+            return result;
+        });
+    }
+
+    // Write hooks: capture the values now, apply them once the caller's transaction commits
+
+    public void added(Long userId, Collection<Expense> expenses) {
+        if (!enabled) {
+            return;
+        }
+        List<ExpenseColumnRow> rows = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            rows.add(new ExpenseColumnRow(expense.getId(), expense.getDate(), expense.getAmountCents(), expense.getCategory()));
+        }
+        cache.afterCommit(userId, columns -> rows.forEach(columns::put));
+    }
+
+    public void updated(Long userId, Expense expense) {
+        if (!enabled) {
+            return;
+        }
+        ExpenseColumnRow row = new ExpenseColumnRow(expense.getId(), expense.getDate(), expense.getAmountCents(), expense.getCategory());
+        cache.afterCommit(userId, columns -> columns.put(row));
+    }
+
+    public void removed(Long userId, Long expenseId) {
+        if (!enabled) {
+            return;
+        }
+        cache.afterCommit(userId, columns -> columns.remove(expenseId));
+    }
+
+    public void evict(Long userId) {
+        cache.evict(userId);
+    }
+
+    long usedBytes() {
+        return cache.usedBytes();
+    }
+
+    /**
+     * Parallel columns in direct buffers; row order is arbitrary and removal moves the last row into
+     * the gap. Rows are found by id through an open-addressing table of row numbers (linear probing,
+     * at most half full) that lives off-heap with them. Category names are dictionary-encoded on heap.
+     * Guarded by the instance's monitor.
+     */
+    static final class UserColumns extends VersionedUserCache.Entry<ExpenseColumnRow> {
+
+        private int size;
+        private LongBuffer ids;
+        private IntBuffer days;
+        private LongBuffer cents;
+        private IntBuffer categoryIds;
+        // Row number + 1 per slot, 0 for an empty slot
+        private IntBuffer slots;
+        private final Map<String, Integer> categoryIdByName = new HashMap<>();
+        private final List<String> categoryNames = new ArrayList<>();
+        private long categoryBytes;
+
+        UserColumns(long version) {
+            super(version);
+            allocate(MIN_CAPACITY);
+        }
+
+        @Override
+        long bytes() {
+            return (long) ids.capacity() * BYTES_PER_ROW + categoryBytes;
+        }
+
+        @Override
+        void put(ExpenseColumnRow row) {
+            int slot = slotOf(row.id());
+            int index = slots.get(slot) - 1;
+            if (index >= 0) {
+                write(index, row);
+                return;
+            }
+            if (size == ids.capacity()) {
+                grow();
+                slot = slotOf(row.id());
+            }
+            slots.put(slot, size + 1);
+            write(size++, row);
+        }
+
+        void remove(Long id) {
+            int slot = slotOf(id);
+            int index = slots.get(slot) - 1;
+            if (index < 0) {
+                return;
+            }
+            clearSlot(slot);
+            int last = --size;
+            if (index != last) {
+                long lastId = ids.get(last);
+                ids.put(index, lastId);
+                days.put(index, days.get(last));
+                cents.put(index, cents.get(last));
+                categoryIds.put(index, categoryIds.get(last));
+                slots.put(slotOf(lastId), index + 1);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        // The slot holding this id, or the empty slot where it would go
+        private int slotOf(long id) {
+            int mask = slots.capacity() - 1;
+            int slot = home(id, mask);
+            while (true) {
+                int index = slots.get(slot) - 1;
+                if (index < 0 || ids.get(index) == id) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private static int home(long id, int mask) {
+            // Fibonacci hashing spreads sequential ids across the table
+            return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+
+        // Backward-shift deletion: pull later entries of the probe run into the hole so lookups never stop early
+        private void clearSlot(int hole) {
+            int mask = slots.capacity() - 1;
+            int next = hole;
+            while (true) {
+                next = (next + 1) & mask;
+                int index = slots.get(next) - 1;
+                if (index < 0) {
+                    break;
+                }
+                int home = home(ids.get(index), mask);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    slots.put(hole, index + 1);
+                    hole = next;
+                }
+            }
+            slots.put(hole, 0);
+        }
+
+        List<DailyExpenseTotal> dailyTotals(LocalDate from, LocalDate to) {
+            int first = Math.toIntExact(from.toEpochDay());
+            int span = Math.toIntExact(to.toEpochDay() - first);
+            long[] totals = new long[Math.max(span, 0)];
+            long[] counts = new long[totals.length];
+            for (int i = 0; i < size; i++) {
+                int day = days.get(i) - first;
+                // Unsigned compare rejects both day < 0 and day >= span (and NO_DATE) in one branch
+                if (Integer.compareUnsigned(day, span) < 0) {
+                    totals[day] += cents.get(i);
+                    counts[day]++;
+                }
+            }
+            List<DailyExpenseTotal> result = new ArrayList<>();
+            for (int day = 0; day < totals.length; day++) {
+                if (counts[day] != 0) {
+                    result.add(new DailyExpenseTotal(LocalDate.ofEpochDay(first + day), totals[day], counts[day]));
+                }
+            }
+            return result;
+        }
+
+        List<ExpenseSummaryDTO> categoryTotals(LocalDate from, LocalDate to) {
+            int first = Math.toIntExact(from.toEpochDay());
+            int span = Math.toIntExact(to.toEpochDay() - first);
+            long[] totals = new long[categoryNames.size()];
+            boolean[] seen = new boolean[totals.length];
+            for (int i = 0; i < size; i++) {
+                if (Integer.compareUnsigned(days.get(i) - first, span) < 0) {
+                    int category = categoryIds.get(i);
+                    totals[category] += cents.get(i);
+                    seen[category] = true;
+                }
+            }
+            List<ExpenseSummaryDTO> result = new ArrayList<>();
+            for (int category = 0; category < totals.length; category++) {
+                if (seen[category]) {
+                    result.add(new ExpenseSummaryDTO(categoryNames.get(category), totals[category]));
+                }
+            }
+            return result;
+        }
+
+        private void write(int index, ExpenseColumnRow row) {
+            ids.put(index, row.id());
+            days.put(index, row.date() == null ? NO_DATE : Math.toIntExact(row.date().toEpochDay()));
+            cents.put(index, row.amountCents());
+            categoryIds.put(index, categoryIdByName.computeIfAbsent(row.category(), name -> {
+                categoryNames.add(name);
+                categoryBytes += CATEGORY_BYTES + (name == null ? 0 : 2L * name.length());
+                return categoryNames.size() - 1;
+            }));
+        }
+
+        private void grow() {
+            LongBuffer oldIds = ids;
+            IntBuffer oldDays = days;
+            LongBuffer oldCents = cents;
+            IntBuffer oldCategoryIds = categoryIds;
+            allocate(ids.capacity() * 2);
+            ids.put(0, oldIds, 0, size);
+            days.put(0, oldDays, 0, size);
+            cents.put(0, oldCents, 0, size);
+            categoryIds.put(0, oldCategoryIds, 0, size);
+            for (int index = 0; index < size; index++) {
+                slots.put(slotOf(ids.get(index)), index + 1);
+            }
+        }
+
+        private void allocate(int capacity) {
+            ids = direct(capacity * Long.BYTES).asLongBuffer();
+            days = direct(capacity * Integer.BYTES).asIntBuffer();
+            cents = direct(capacity * Long.BYTES).asLongBuffer();
+            categoryIds = direct(capacity * Integer.BYTES).asIntBuffer();
+            slots = direct(2 * capacity * Integer.BYTES).asIntBuffer();
+        }
+
+        private static ByteBuffer direct(int bytes) {
+            return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.expensetracker.service;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only file of accepted-but-not-yet-stored expenses, one JSON document per line, plus a
+ * checkpoint file holding the offset up to which every entry is known to be in the database. Entries the
+ * database rejected are moved to a separate dead-letter file for manual follow-up.
+ *
+ * <p>Offsets are logical: they count every byte ever appended, and the current segment file
+ * ({@code expenses-<offset>.log}) holds the entries from the offset in its name onwards. Compaction copies
+ * the entries after the checkpoint into a new segment, so offsets held by callers stay valid.
+ * Not thread-safe, except that {@link #force()} may run alongside the other methods;
+ * {@link ExpenseWriteBehindService} serialises access.
+ */
+class ExpenseIngestLog implements Closeable {
+
+    interface LineConsumer {
+        void accept(String line, long endOffset);
+    }
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("expenses-(\\d+)\\.log");
+
+    private final Path directory;
+    private final Path checkpointFile;
+    private final Path deadLetterFile;
+    private Path logFile;
+    // Logical offset of the first byte of the current segment
+    private long base;
+    // Volatile for force(), which may see the segment being replaced
+    private volatile FileChannel channel;
+
+    ExpenseIngestLog(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.checkpointFile = directory.resolve("expenses.checkpoint");
+        this.deadLetterFile = directory.resolve("expenses.dead");
+        this.base = newestSegment();
+        this.logFile = segment(base);
+        this.channel = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // A line cut short by a crash was never acknowledged; drop it so the next append starts a clean line
+        channel.truncate(endOfLastLine());
+        channel.position(channel.size());
+    }
+
+    private Path segment(long offset) {
+        return directory.resolve("expenses-" + offset + ".log");
+    }
+
+    // Older segments are left over from a compaction interrupted after its new segment was in place
+    private long newestSegment() throws IOException {
+        long newest = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (name.matches()) {
+                    newest = Math.max(newest, Long.parseLong(name.group(1)));
+                }
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Matcher name = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if ((name.matches() && Long.parseLong(name.group(1)) != newest) || file.toString().endsWith(".log.tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        return newest;
+    }
+
+    private long endOfLastLine() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) > 0) {
+                // positional reads may return short
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    /**
+     * Appends one line and returns the offset just past it. The data reaches the OS, not necessarily
+     * the disk; call {@link #force()} for that.
+     */
+    long append(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        return base + channel.position();
+    }
+
+    void force() throws IOException {
+        try {
+            // fdatasync: flushes the data and the file length needed to read it back, skipping timestamps
+            channel.force(false);
+        } catch (ClosedChannelException e) {
+            // Compaction replaced the segment meanwhile; the new one was synced before it took over
+        }
+    }
+
+    // Offset of the first entry still in the log
+    long start() {
+        return base;
+    }
+
+    // Offset just past the last entry
+    long size() throws IOException {
+        return base + channel.size();
+    }
+
+    long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        String value = Files.readString(checkpointFile, StandardCharsets.UTF_8).trim();
+        return value.isEmpty() ? 0 : Long.parseLong(value);
+    }
+
+    // Written to a temporary file and renamed so a crash leaves either the old or the new offset
+    void writeCheckpoint(long offset) throws IOException {
+        Path temp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(temp, Long.toString(offset), StandardCharsets.UTF_8);
+        Files.move(temp, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Rare, so each call opens, syncs and closes the file; the entry must be safe before it leaves the queue
+    void appendDeadLetter(String line) throws IOException {
+        try (FileChannel deadLetters = FileChannel.open(deadLetterFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                deadLetters.write(buffer);
+            }
+            deadLetters.force(false);
+        }
+    }
+
+    List<String> readDeadLetters() throws IOException {
+        return Files.exists(deadLetterFile) ? Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8) : List.of();
+    }
+
+    /**
+     * Reads complete lines from {@code offset}, which must lie within the log, to the end.
+     */
+    void readFrom(long offset, LineConsumer consumer) throws IOException {
+        try (FileChannel reader = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            reader.position(offset - base);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(reader));
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = offset;
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    consumer.accept(line.toString(StandardCharsets.UTF_8), position);
+                    line.reset();
+                } else {
+                    line.write(b);
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the segment with one holding only the entries after {@code checkpoint}, an entry boundary
+     * that is already checkpointed. The new segment is complete and synced before it takes over, so a crash
+     * at any point leaves one whole copy of every unstored entry.
+     */
+    void compact(long checkpoint) throws IOException {
+        if (checkpoint <= base) {
+            return;
+        }
+        Path compacted = segment(checkpoint);
+        Path temp = compacted.resolveSibling(compacted.getFileName() + ".tmp");
+        try (FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = checkpoint - base;
+            long end = channel.size();
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+            target.force(false);
+        }
+        Files.move(temp, compacted, StandardCopyOption.ATOMIC_MOVE);
+
+        FileChannel previous = channel;
+        Path previousFile = logFile;
+        FileChannel next = FileChannel.open(compacted, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        next.position(next.size());
+        channel = next;
+        logFile = compacted;
+        base = checkpoint;
+        previous.close();
+        Files.delete(previousFile);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,182 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRollup;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import com.expensetracker.payload.RollupVerificationDTO;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the per-user (year, month, category) rollup in step with the expenses table.
+ * Write methods are expected to run inside the caller's expense transaction.
+ */
+@Service
+public class ExpenseRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseRollupService.class);
+
+    @Autowired
+    private ExpenseRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // MySQL gets the atomic ON DUPLICATE KEY upsert; other databases (H2 in tests) the standard MERGE
+    private boolean mysql;
+
+    @PostConstruct
+    void detectDatabase() {
+        String product = jdbcTemplate.execute((Connection connection) -> connection.getMetaData().getDatabaseProductName());
+        mysql = "MySQL".equalsIgnoreCase(product);
+    }
+
+    @Transactional
+    public void add(Long userId, LocalDate date, String category, long amountCents) {
+        adjust(userId, date, category, amountCents, 1);
+    }
+
+    @Transactional
+    public void remove(Long userId, LocalDate date, String category, long amountCents) {
+        adjust(userId, date, category, -amountCents, -1);
+    }
+
+    @Transactional
+    public void add(Expense expense) {
+        add(expense.getUser().getId(), expense.getDate(), expense.getCategory(), expense.getAmountCents());
+    }
+
+    @Transactional
+    public void remove(Expense expense) {
+        remove(expense.getUser().getId(), expense.getDate(), expense.getCategory(), expense.getAmountCents());
+    }
+
+    /**
+     * Adds a set of new expenses with one bucket update per distinct (year, month, category) rather than per row.
+     */
+    @Transactional
+    public void addAll(Long userId, Collection<Expense> expenses) {
+        // {total cents, count} per bucket
+        Map<BucketKey, long[]> deltas = new HashMap<>();
+        for (Expense expense : expenses) {
+            if (expense.getDate() == null) {
+                continue;
+            }
+            BucketKey key = new BucketKey(userId, expense.getDate().getYear(), expense.getDate().getMonthValue(), bucketCategory(expense.getCategory()));
+            long[] delta = deltas.computeIfAbsent(key, k -> new long[2]);
+            delta[0] += expense.getAmountCents();
+            delta[1]++;
+        }
+        deltas.forEach((key, delta) -> adjustBucket(userId, key.year(), key.month(), key.category(), delta[0], delta[1]));
+    }
+
+    private void adjust(Long userId, LocalDate date, String category, long amountCents, long count) {
+        if (date == null) {
+            // Undated expenses cannot belong to any month bucket
+            return;
+        }
+        adjustBucket(userId, date.getYear(), date.getMonthValue(), category, amountCents, count);
+    }
+
+    private void adjustBucket(Long userId, int year, int month, String category, long delta, long count) {
+        if (mysql) {
+            rollupRepository.addToBucket(userId, year, month, bucketCategory(category), delta, count);
+        } else {
+            rollupRepository.mergeIntoBucket(userId, year, month, bucketCategory(category), delta, count);
+        }
+        if (count < 0) {
+            rollupRepository.deleteEmptyBucket(userId, year, month, bucketCategory(category));
+        }
+    }
+
+    private static String bucketCategory(String category) {
+        return category == null ? ExpenseRollup.NO_CATEGORY : category;
+    }
+
+    @Transactional
+    public void clearUser(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Regenerates one user's buckets from their expenses with two set-based statements; used after bulk
+     * changes, where recomputing is cheaper than tracking every row's old bucket.
+     */
+    @Transactional
+    public void rebuildUser(Long userId) {
+        rollupRepository.deleteByUserId(userId);
+        rollupRepository.rebuildFromExpensesForUser(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExpenseSummaryDTO> getCategorySummary(Long userId, int month, int year) {
+        return rollupRepository.findCategorySummary(userId, year, month);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlyExpenseSummaryDTO> getMonthlySummary(Long userId, int year) {
+        return rollupRepository.findMonthlySummary(userId, year);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return rollupRepository.count() == 0;
+    }
+
+    /**
+     * Regenerates every bucket from the raw expenses and then verifies the result.
+     */
+    @Transactional
+    public RollupVerificationDTO rebuild() {
+        int removed = rollupRepository.deleteAllBuckets();
+        int inserted = rollupRepository.rebuildFromExpenses();
+        logger.info("Rebuilt expense rollups: removed {} buckets, inserted {}", removed, inserted);
+        return verify();
+    }
+
+    @Transactional(readOnly = true)
+    public RollupVerificationDTO verify() {
+        Map<BucketKey, ExpenseRollup> rollups = new HashMap<>();
+        for (ExpenseRollup rollup : rollupRepository.findAll()) {
+            rollups.put(new BucketKey(rollup.getUserId(), rollup.getYear(), rollup.getMonth(), rollup.getCategory()), rollup);
+        }
+
+        List<Object[]> expected = rollupRepository.aggregateExpensesByBucket();
+        int mismatches = 0;
+        for (Object[] row : expected) {
+            BucketKey key = new BucketKey((Long) row[0], ((Number) row[1]).intValue(), ((Number) row[2]).intValue(), (String) row[3]);
+            ExpenseRollup rollup = rollups.remove(key);
+            long totalCents = ((Number) row[4]).longValue();
+            long count = ((Number) row[5]).longValue();
+            if (rollup == null || rollup.getCount() != count || rollup.getTotalCents() != totalCents) {
+                logger.warn("Rollup mismatch for {}: expected totalCents={} count={}, found {}", key, totalCents, count,
+                        rollup == null ? "nothing" : "totalCents=" + rollup.getTotalCents() + " count=" + rollup.getCount());
+                mismatches++;
+            }
+        }
+        // Anything left over is a bucket with no expenses behind it
+        for (ExpenseRollup stale : rollups.values()) {
+            if (stale.getCount() != 0) {
+                logger.warn("Stale rollup bucket id={} for user {}", stale.getId(), stale.getUserId());
+                mismatches++;
+            }
+        }
+        return new RollupVerificationDTO(expected.size(), mismatches);
+    }
+
+    private record BucketKey(Long userId, int year, int month, String category) {}
+}
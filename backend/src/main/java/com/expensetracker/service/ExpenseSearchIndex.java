@@ -0,0 +1,324 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseDescriptionRow;
+import com.expensetracker.payload.SearchIndexStatusDTO;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Per-user inverted index over expense descriptions. Tokens are accent-stripped and lower-cased, and
+ * every query term also matches tokens it is a prefix of ("gro" finds "groceries"), at a lower weight
+ * than an exact match. Results contain all query terms and are ranked by tf-idf over the user's own
+ * expenses, normalised by description length.
+ *
+ * <p>Users are indexed lazily and evicted whole, least recently used first, once the estimated heap use
+ * exceeds the budget; write hooks and reads follow the user's data version as described in
+ * {@link VersionedUserCache}. A user whose index alone would not fit is searched by scanning their
+ * descriptions instead.
+ */
+@Service
+public class ExpenseSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseSearchIndex.class);
+
+    static final int MAX_QUERY_TERMS = 8;
+    static final int MAX_QUERY_LENGTH = 200;
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    // Estimated heap cost: tree node + String + posting map per term, map node + boxed key/value per posting
+    private static final int TERM_BYTES = 120;
+    private static final int POSTING_BYTES = 56;
+    private static final int DOCUMENT_BYTES = 72;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.expenses.search-index.max-bytes:32MB}")
+    private DataSize maxBytes;
+
+    private VersionedUserCache<ExpenseDescriptionRow, UserIndex> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new VersionedUserCache<>("search index", maxBytes.toBytes(), userRepository, transactionManager,
+                expenseRepository::streamDescriptionsByUserId, UserIndex::new);
+    }
+
+    /**
+     * Splits text into accent-free, lower-case runs of letters and digits, in order, with repeats.
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("").toLowerCase(Locale.ROOT);
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Ids of the user's expenses that match every term of the query, best match first (newer expenses
+     * first among equal scores).
+     */
+    public List<Long> search(Long userId, String query) {
+        List<String> terms = queryTerms(query);
+        UserIndex index = cache.current(userId);
+        if (index != null) {
+            synchronized (index) {
+                return index.search(terms);
+            }
+        }
+        return scan(userId, terms);
+    }
+
+    private static List<String> queryTerms(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new IllegalArgumentException("Search query must be at most " + MAX_QUERY_LENGTH + " characters");
+        }
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a letter or digit");
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            throw new IllegalArgumentException("Search query must have at most " + MAX_QUERY_TERMS + " terms");
+        }
+        return terms;
+    }
+
+    // Fallback for a user too large to index: one pass over their descriptions, ranked the same way
+    private List<Long> scan(Long userId, List<String> terms) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            Ranking ranking = new Ranking(terms.size());
+            int documents = 0;
+            try (Stream<ExpenseDescriptionRow> rows = expenseRepository.streamDescriptionsByUserId(userId)) {
+                Iterator<ExpenseDescriptionRow> it = rows.iterator();
+                while (it.hasNext()) {
+                    ExpenseDescriptionRow row = it.next();
+                    List<String> tokens = tokenize(row.description());
+                    documents++;
+                    for (int term = 0; term < terms.size(); term++) {
+                        String query = terms.get(term);
+                        for (String token : tokens) {
+                            if (token.startsWith(query)) {
+                                ranking.add(row.id(), tokens.size(), term, token.length() == query.length() ? 1 : PREFIX_WEIGHT);
+                            }
+                        }
+                    }
+                }
+            }
+            return ranking.ranked(documents);
+        });
+    }
+
+    // Write hooks: capture the values now, apply them once the caller's transaction commits
+
+    public void added(Long userId, Collection<Expense> expenses) {
+        List<ExpenseDescriptionRow> rows = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            rows.add(new ExpenseDescriptionRow(expense.getId(), expense.getDescription()));
+        }
+        cache.afterCommit(userId, index -> rows.forEach(index::put));
+    }
+
+    public void updated(Long userId, Expense expense) {
+        ExpenseDescriptionRow row = new ExpenseDescriptionRow(expense.getId(), expense.getDescription());
+        cache.afterCommit(userId, index -> index.put(row));
+    }
+
+    public void removed(Long userId, Long expenseId) {
+        cache.afterCommit(userId, index -> index.remove(expenseId));
+    }
+
+    public void evict(Long userId) {
+        cache.evict(userId);
+    }
+
+    /**
+     * Drops everything and indexes users from the database, most frequently changed first, until the
+     * budget is full. The rest are indexed on their first search as usual.
+     */
+    public SearchIndexStatusDTO rebuild() {
+        cache.clear();
+        for (Long userId : userRepository.findIdsByDataVersionDesc()) {
+            UserIndex index = cache.load(userId);
+            if (index == null || !cache.holds(userId, index)) {
+                // Too large on its own, or the budget is full and it pushed out an earlier user
+                break;
+            }
+        }
+        SearchIndexStatusDTO status = status();
+        logger.info("Expense search index rebuilt: {} users, ~{} bytes", status.users(), status.usedBytes());
+        return status;
+    }
+
+    public SearchIndexStatusDTO status() {
+        return new SearchIndexStatusDTO(cache.size(), cache.usedBytes(), cache.maxBytes());
+    }
+
+    /**
+     * Postings sorted by token, so a prefix is one sub-map; each expense keeps its distinct tokens for
+     * removal and its token count for length normalisation. Guarded by the instance's monitor.
+     */
+    private static final class UserIndex extends VersionedUserCache.Entry<ExpenseDescriptionRow> {
+
+        private long bytes;
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Document> documents = new HashMap<>();
+
+        UserIndex(long version) {
+            super(version);
+        }
+
+        @Override
+        long bytes() {
+            return bytes;
+        }
+
+        @Override
+        void put(ExpenseDescriptionRow row) {
+            remove(row.id());
+            List<String> tokens = tokenize(row.description());
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((token, frequency) -> {
+                Map<Long, Integer> posting = postings.get(token);
+                if (posting == null) {
+                    posting = new HashMap<>();
+                    postings.put(token, posting);
+                    bytes += TERM_BYTES + 2L * token.length();
+                }
+                posting.put(row.id(), frequency);
+                bytes += POSTING_BYTES;
+            });
+            documents.put(row.id(), new Document(frequencies.keySet().toArray(new String[0]), tokens.size()));
+            bytes += DOCUMENT_BYTES + 8L * frequencies.size();
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String token : document.tokens()) {
+                Map<Long, Integer> posting = postings.get(token);
+                posting.remove(id);
+                bytes -= POSTING_BYTES;
+                if (posting.isEmpty()) {
+                    postings.remove(token);
+                    bytes -= TERM_BYTES + 2L * token.length();
+                }
+            }
+            bytes -= DOCUMENT_BYTES + 8L * document.tokens().length;
+        }
+
+        List<Long> search(List<String> terms) {
+            Ranking ranking = new Ranking(terms.size());
+            for (int term = 0; term < terms.size(); term++) {
+                String query = terms.get(term);
+                // Every token starting with the query sorts in [query, query + U+FFFF)
+                for (Map.Entry<String, Map<Long, Integer>> entry : postings.subMap(query, true, query + Character.MAX_VALUE, false).entrySet()) {
+                    double weight = entry.getKey().length() == query.length() ? 1 : PREFIX_WEIGHT;
+                    for (Map.Entry<Long, Integer> posting : entry.getValue().entrySet()) {
+                        ranking.add(posting.getKey(), documents.get(posting.getKey()).length(), term, weight * posting.getValue());
+                    }
+                }
+            }
+            return ranking.ranked(documents.size());
+        }
+    }
+
+    private record Document(String[] tokens, int length) {
+    }
+
+    // Accumulates per-term match weights for each candidate expense and orders those matching every term
+    private static final class Ranking {
+
+        private final int terms;
+        private final Map<Long, double[]> weights = new HashMap<>();
+        private final Map<Long, Integer> lengths = new HashMap<>();
+
+        Ranking(int terms) {
+            this.terms = terms;
+        }
+
+        void add(Long id, int length, int term, double weight) {
+            weights.computeIfAbsent(id, key -> new double[terms])[term] += weight;
+            lengths.put(id, length);
+        }
+
+        List<Long> ranked(int documents) {
+            int[] frequencies = new int[terms];
+            for (double[] perTerm : weights.values()) {
+                for (int term = 0; term < terms; term++) {
+                    if (perTerm[term] > 0) {
+                        frequencies[term]++;
+                    }
+                }
+            }
+            double[] idf = new double[terms];
+            for (int term = 0; term < terms; term++) {
+                idf[term] = Math.log(1 + (double) documents / Math.max(1, frequencies[term]));
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            weights.forEach((id, perTerm) -> {
+                double score = 0;
+                for (int term = 0; term < terms; term++) {
+                    if (perTerm[term] == 0) {
+                        return;
+                    }
+                    score += perTerm[term] * idf[term];
+                }
+                scores.put(id, score / Math.sqrt(lengths.get(id)));
+            });
+            List<Long> ranked = new ArrayList<>(scores.keySet());
+            ranked.sort(Comparator.comparing((Long id) -> scores.get(id)).reversed().thenComparing(Comparator.reverseOrder()));
+            return ranked;
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.expensetracker.service;
 
 import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseBatchResultDTO;
+import com.expensetracker.payload.ExpenseBulkRequest;
+import com.expensetracker.payload.ExpenseFilter;
+import com.expensetracker.payload.ExpenseFilterPage;
+import com.expensetracker.payload.ExpensePage;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.payload.ExpenseSearchPage;
 import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
 
+import java.time.LocalDate;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ExpenseService {
-    Expense addExpense(Expense expense, String username);
-    List<Expense> getAllExpenses(String username);
-    Expense getExpenseById(Long id, String username);
-    Expense updateExpense(Long id, Expense expense, String username);
-    void deleteExpense(Long id, String username);
-    Expense save(Expense expense); // This is used by the controller's update method
-    Optional<Expense> findById(Long id); // This is used by the controller's update method
+    Expense addExpense(Expense expense, Long userId);
+    ExpenseBatchResultDTO addExpenses(Iterator<Expense> expenses, Long userId);
+    List<ExpenseResponse> getAllExpenses(Long userId);
+    List<ExpenseResponse> getExpensesByUserId(Long userId);
+    ExpensePage getExpensePage(Long userId, String cursor, int limit);
+    ExpenseFilterPage getFilteredExpenses(Long userId, ExpenseFilter filter, int page, int size);
+    void streamExpenses(Long userId, Consumer<ExpenseResponse> consumer);
+    void exportExpenses(Long userId, LocalDate from, LocalDate to, Consumer<ExpenseResponse> consumer);
+    ExpenseSearchPage searchExpenses(Long userId, String query, List<String> category, LocalDate from, LocalDate to, int page, int size);
+    ExpenseResponse getExpenseById(Long id, Long userId);
+    Expense updateExpense(Long id, Expense expense, Long userId);
+    void deleteExpense(Long id, Long userId);
+    int bulkUpdateCategory(Long userId, ExpenseBulkRequest request);
+    int bulkDelete(Long userId, ExpenseBulkRequest request);
+    long getDataVersion(Long userId);
     
     List<com.expensetracker.payload.ExpenseSummaryDTO> getExpenseSummaryByCategory(Long userId, int month, int year);
     List<MonthlyExpenseSummaryDTO> getMonthlyExpenseSummary(Long userId, int year);
@@ -1,90 +1,472 @@
 package com.expensetracker.service;
 
+import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Expense;
+import com.expensetracker.model.Money;
 import com.expensetracker.model.User;
+import com.expensetracker.payload.ExpenseBatchResultDTO;
+import com.expensetracker.payload.ExpenseBulkRequest;
+import com.expensetracker.payload.ExpenseCursor;
+import com.expensetracker.payload.ExpenseFilter;
+import com.expensetracker.payload.ExpenseFilterPage;
+import com.expensetracker.payload.ExpensePage;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.payload.ExpenseSearchPage;
 import com.expensetracker.payload.ExpenseSummaryDTO;
 import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
 import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.ExpenseSpecifications;
 import com.expensetracker.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ExpenseServiceImpl implements ExpenseService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseServiceImpl.class);
+
+    private static final LocalDate EXPORT_MIN_DATE = LocalDate.of(1000, 1, 1);
+    private static final LocalDate EXPORT_MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    static final int MAX_FILTER_CATEGORIES = 50;
+    static final int MAX_BULK_IDS = 1000;
+    static final int MAX_FILTER_PREFIX_LENGTH = 100;
+
+    // Filtered listing sort keys -> entity properties; ties are broken by id in the same direction
+    private static final Map<String, String> FILTER_SORT_PROPERTIES = Map.of(
+            "date", "date",
+            "amount", "amountCents",
+            "category", "category",
+            "description", "description");
+
     @Autowired
     private ExpenseRepository expenseRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseColumnCache expenseColumnCache;
+
+    @Autowired
+    private ExpenseSearchIndex expenseSearchIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.expenses.batch-size:500}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public Expense addExpense(Expense expense, Long userId) {
+        requireValid(expense);
+        // A reference is enough to set the foreign key; the user row is not read
+        expense.setUser(userRepository.getReferenceById(userId));
+        Expense saved = expenseRepository.save(expense);
+        expenseRollupService.add(saved);
+        userRepository.incrementDataVersion(userId);
+        expenseColumnCache.added(userId, List.of(saved));
+        expenseSearchIndex.added(userId, List.of(saved));
+        return saved;
+    }
+
+    @Override
+    public ExpenseBatchResultDTO addExpenses(Iterator<Expense> expenses, Long userId) {
+        // One slot per input row; stored rows are filled in when their chunk commits
+        List<ExpenseBatchResultDTO.RowResult> results = new ArrayList<>();
+        List<Expense> chunk = new ArrayList<>(batchSize);
+        List<Integer> positions = new ArrayList<>(batchSize);
+
+        while (true) {
+            int index = results.size();
+            Expense expense;
+            try {
+                if (!expenses.hasNext()) {
+                    break;
+                }
+                expense = expenses.next();
+            } catch (RuntimeException e) {
+                // The reader cannot resynchronise after a malformed row, so the import stops here
+                results.add(new ExpenseBatchResultDTO.RowResult(index, null, "Malformed row: " + e.getMessage()));
+                break;
+            }
+
+            String error = validate(expense);
+            if (error != null) {
+                results.add(new ExpenseBatchResultDTO.RowResult(index, null, error));
+                continue;
+            }
+            results.add(null);
+            chunk.add(expense);
+            positions.add(index);
+            if (chunk.size() == batchSize) {
+                insertChunk(userId, chunk, positions, results);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            insertChunk(userId, chunk, positions, results);
+        }
+
+        int accepted = (int) results.stream().filter(row -> row.id() != null).count();
+        return new ExpenseBatchResultDTO(accepted, results.size() - accepted, results);
+    }
+
+    // The rules for every write path; null when the expense is valid. Bulk import reports the message per row,
+    // the others throw it (see requireValid)
+    static String validate(Expense expense) {
+        if (expense == null) {
+            return "Row is empty";
+        }
+        if (expense.getDescription() == null || expense.getDescription().isBlank()) {
+            return "Description is required";
+        }
+        if (expense.getDescription().length() > Expense.DESCRIPTION_LENGTH) {
+            return "Description must be at most " + Expense.DESCRIPTION_LENGTH + " characters";
+        }
+        if (expense.getCategory() != null && expense.getCategory().length() > Expense.CATEGORY_LENGTH) {
+            return "Category must be at most " + Expense.CATEGORY_LENGTH + " characters";
+        }
+        if (expense.getAmountCents() < 0) {
+            return "Amount must be a non-negative number";
+        }
+        if (expense.getDate() == null) {
+            return "Date is required";
+        }
+        return null;
+    }
+
+    // Single creates and updates, and write-behind appends, which must reject a row before acknowledging it
+    static void requireValid(Expense expense) {
+        String error = validate(expense);
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+
+    // Each chunk commits on its own so a failure only affects that chunk's rows
+    private void insertChunk(Long userId, List<Expense> chunk, List<Integer> positions, List<ExpenseBatchResultDTO.RowResult> results) {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                User user = userRepository.getReferenceById(userId);
+                for (Expense expense : chunk) {
+                    expense.setId(null);
+                    expense.setUser(user);
+                }
+                expenseRepository.saveAll(chunk);
+                entityManager.flush();
+                entityManager.clear();
+                expenseRollupService.addAll(userId, chunk);
+                userRepository.incrementDataVersion(userId);
+                expenseColumnCache.added(userId, chunk);
+                expenseSearchIndex.added(userId, chunk);
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                results.set(positions.get(i), new ExpenseBatchResultDTO.RowResult(positions.get(i), chunk.get(i).getId(), null));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Bulk expense insert failed for user id={}", userId, e);
+            for (Integer position : positions) {
+                results.set(position, new ExpenseBatchResultDTO.RowResult(position, null, "Insert failed: " + e.getMessage()));
+            }
+        }
+        chunk.clear();
+        positions.clear();
+    }
+
+    // Read paths select ExpenseResponse projections in read-only transactions; no entity reaches Jackson
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExpenseResponse> getAllExpenses(Long userId) {
+        return expenseRepository.findResponsesByUserId(userId);
+    }
+
+    // Admin view of another user's expenses
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExpenseResponse> getExpensesByUserId(Long userId) {
+        return expenseRepository.findResponsesByUserId(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpensePage getExpensePage(Long userId, String cursor, int limit) {
+        // Fetch one extra row to know whether another page follows without a count query
+        PageRequest window = PageRequest.of(0, limit + 1);
+        List<ExpenseResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = expenseRepository.findFirstPageByUserId(userId, window);
+        } else {
+            ExpenseCursor position = ExpenseCursor.decode(cursor);
+            rows = (position.date() == null)
+                    ? expenseRepository.findUndatedPageByUserIdAfter(userId, position.id(), window)
+                    : expenseRepository.findPageByUserIdAfter(userId, position.date(), position.id(), window);
+        }
+
+        if (rows.size() <= limit) {
+            return new ExpensePage(rows, null);
+        }
+        List<ExpenseResponse> content = rows.subList(0, limit);
+        ExpenseResponse last = content.get(limit - 1);
+        return new ExpensePage(content, new ExpenseCursor(last.date(), last.id()).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExpenseFilterPage getFilteredExpenses(Long userId, ExpenseFilter filter, int page, int size) {
+        List<Specification<Expense>> criteria = new ArrayList<>();
+        criteria.add(ExpenseSpecifications.belongsTo(userId));
+        addCategoryAndDateCriteria(criteria, filter.category(), filter.from(), filter.to());
+        Long minCents = (filter.minAmount() == null) ? null : Money.toMinorUnits(filter.minAmount());
+        Long maxCents = (filter.maxAmount() == null) ? null : Money.toMinorUnits(filter.maxAmount());
+        if (minCents != null && maxCents != null && minCents > maxCents) {
+            throw new IllegalArgumentException("minAmount must not be greater than maxAmount");
+        }
+        if (minCents != null) {
+            criteria.add(ExpenseSpecifications.amountAtLeast(minCents));
+        }
+        if (maxCents != null) {
+            criteria.add(ExpenseSpecifications.amountAtMost(maxCents));
+        }
+        if (filter.prefix() != null && !filter.prefix().isEmpty()) {
+            if (filter.prefix().length() > MAX_FILTER_PREFIX_LENGTH) {
+                throw new IllegalArgumentException("prefix must be at most " + MAX_FILTER_PREFIX_LENGTH + " characters");
+            }
+            criteria.add(ExpenseSpecifications.descriptionStartsWith(filter.prefix()));
+        }
+
+        String sortKey = (filter.sort() == null) ? "date" : filter.sort();
+        String property = FILTER_SORT_PROPERTIES.get(sortKey);
+        if (property == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortKey);
+        }
+        Sort.Direction direction = (filter.direction() == null) ? Sort.Direction.DESC : Sort.Direction.fromString(filter.direction());
+        Sort order = Sort.by(direction, property).and(Sort.by(direction, "id"));
+
+        Page<ExpenseResponse> result = expenseRepository.findResponses(Specification.allOf(criteria), PageRequest.of(page, size, order));
+        return new ExpenseFilterPage(result.getContent(), page, size, result.getTotalElements(), result.getTotalPages());
+    }
+
+    // Category set and inclusive [from, to], validated the same way wherever expenses are selected by them
+    private static void addCategoryAndDateCriteria(List<Specification<Expense>> criteria, List<String> category, LocalDate from, LocalDate to) {
+        if (category != null && !category.isEmpty()) {
+            if (category.size() > MAX_FILTER_CATEGORIES) {
+                throw new IllegalArgumentException("At most " + MAX_FILTER_CATEGORIES + " categories can be filtered on");
+            }
+            criteria.add(ExpenseSpecifications.categoryIn(category));
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (from != null) {
+            criteria.add(ExpenseSpecifications.dateOnOrAfter(from));
+        }
+        if (to != null) {
+            criteria.add(ExpenseSpecifications.dateBefore(to.plusDays(1)));
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamExpenses(Long userId, Consumer<ExpenseResponse> consumer) {
+        try (Stream<ExpenseResponse> rows = expenseRepository.streamByUserId(userId)) {
+            rows.forEach(consumer);
+        }
+    }
+
     @Override
-    public Expense addExpense(Expense expense, String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-        expense.setUser(user);
-        return expenseRepository.save(expense);
+    @Transactional(readOnly = true)
+    public void exportExpenses(Long userId, LocalDate from, LocalDate to, Consumer<ExpenseResponse> consumer) {
+        // Open ends fall back to the DATE column's range so the query stays a plain index range scan
+        LocalDate start = (from == null) ? EXPORT_MIN_DATE : from;
+        LocalDate end = (to == null || !to.isBefore(EXPORT_MAX_DATE)) ? EXPORT_MAX_DATE : to.plusDays(1);
+        try (Stream<ExpenseResponse> rows = expenseRepository.streamByUserIdAndDateRange(userId, start, end)) {
+            rows.forEach(consumer);
+        }
     }
 
     @Override
-    public List<Expense> getAllExpenses(String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-        return expenseRepository.findByUserId(user.getId());
+    @Transactional(readOnly = true)
+    public ExpenseSearchPage searchExpenses(Long userId, String query, List<String> category, LocalDate from, LocalDate to, int page, int size) {
+        List<Long> ranked = expenseSearchIndex.search(userId, query);
+        List<Specification<Expense>> criteria = new ArrayList<>();
+        criteria.add(ExpenseSpecifications.belongsTo(userId));
+        addCategoryAndDateCriteria(criteria, category, from, to);
+        if (criteria.size() > 1 && !ranked.isEmpty()) {
+            ranked = filterRanked(ranked, criteria);
+        }
+        int first = (int) Math.min((long) page * size, ranked.size());
+        List<Long> ids = ranked.subList(first, Math.min(first + size, ranked.size()));
+        // Only the requested page is loaded, then put back into rank order
+        List<ExpenseResponse> rows = ids.isEmpty() ? List.of() : expenseRepository.findResponsesByUserIdAndIdIn(userId, ids);
+        Map<Long, ExpenseResponse> byId = rows.stream()
+                .collect(Collectors.toMap(ExpenseResponse::id, Function.identity()));
+        List<ExpenseResponse> content = ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+        int totalPages = (ranked.size() + size - 1) / size;
+        return new ExpenseSearchPage(query, content, page, size, ranked.size(), totalPages);
+    }
+
+    // Keeps the matches that also meet the filters, in rank order; one id query per chunk of matches
+    private List<Long> filterRanked(List<Long> ranked, List<Specification<Expense>> criteria) {
+        Set<Long> kept = new HashSet<>();
+        for (int start = 0; start < ranked.size(); start += MAX_BULK_IDS) {
+            List<Specification<Expense>> chunk = new ArrayList<>(criteria);
+            chunk.add(ExpenseSpecifications.idIn(ranked.subList(start, Math.min(start + MAX_BULK_IDS, ranked.size()))));
+            kept.addAll(expenseRepository.findIds(Specification.allOf(chunk)));
+        }
+        return ranked.stream().filter(kept::contains).toList();
     }
 
     @Override
-    public Expense getExpenseById(Long id, String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
-        return expenseRepository.findById(id)
-                .filter(expense -> expense.getUser().getId().equals(user.getId()))
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+    @Transactional(readOnly = true)
+    public ExpenseResponse getExpenseById(Long id, Long userId) {
+        return expenseRepository.findResponseByIdAndUserId(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found"));
     }
 
     @Override
-    public Expense updateExpense(Long id, Expense expense, String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+    @Transactional
+    public Expense updateExpense(Long id, Expense expense, Long userId) {
+        requireValid(expense);
         Expense existingExpense = expenseRepository.findById(id)
-                .filter(exp -> exp.getUser().getId().equals(user.getId()))
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+                .filter(exp -> exp.getUser().getId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found"));
+
+        // Move the old amount out of its bucket before the date/category/amount change
+        expenseRollupService.remove(userId, existingExpense.getDate(), existingExpense.getCategory(), existingExpense.getAmountCents());
+        expenseRollupService.add(userId, expense.getDate(), expense.getCategory(), expense.getAmountCents());
 
         existingExpense.setDescription(expense.getDescription());
-        existingExpense.setAmount(expense.getAmount());
+        existingExpense.setAmountCents(expense.getAmountCents());
         existingExpense.setDate(expense.getDate());
         existingExpense.setCategory(expense.getCategory());
 
-        return expenseRepository.save(existingExpense);
+        Expense saved = expenseRepository.save(existingExpense);
+        userRepository.incrementDataVersion(userId);
+        expenseColumnCache.updated(userId, saved);
+        expenseSearchIndex.updated(userId, saved);
+        return saved;
     }
 
     @Override
-    public void deleteExpense(Long id, String username) {
-        User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("User not found"));
+    @Transactional
+    public void deleteExpense(Long id, Long userId) {
         Expense expense = expenseRepository.findById(id)
-                .filter(exp -> exp.getUser().getId().equals(user.getId()))
-                .orElseThrow(() -> new RuntimeException("Expense not found"));
+                .filter(exp -> exp.getUser().getId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found"));
         expenseRepository.delete(expense);
+        expenseRollupService.remove(expense);
+        userRepository.incrementDataVersion(userId);
+        expenseColumnCache.removed(userId, id);
+        expenseSearchIndex.removed(userId, id);
     }
 
     @Override
-    public Expense save(Expense expense) { // This method is used by the controller's update method
-        return expenseRepository.save(expense);
+    @Transactional
+    public int bulkUpdateCategory(Long userId, ExpenseBulkRequest request) {
+        if (request.newCategory() == null || request.newCategory().isBlank()) {
+            throw new IllegalArgumentException("newCategory is required");
+        }
+        int affected = expenseRepository.updateCategory(bulkSelection(userId, request), request.newCategory());
+        bulkChanged(userId, affected);
+        return affected;
     }
 
     @Override
-    public Optional<Expense> findById(Long id) { // This method is used by the controller's update method
-        return expenseRepository.findById(id);
+    @Transactional
+    public int bulkDelete(Long userId, ExpenseBulkRequest request) {
+        int affected = (int) expenseRepository.delete(bulkSelection(userId, request));
+        bulkChanged(userId, affected);
+        return affected;
     }
 
-    
+    // Always scoped to the user; refuses an empty selection rather than touching every expense they have
+    private static Specification<Expense> bulkSelection(Long userId, ExpenseBulkRequest request) {
+        List<Specification<Expense>> criteria = new ArrayList<>();
+        criteria.add(ExpenseSpecifications.belongsTo(userId));
+        if (request.ids() != null && !request.ids().isEmpty()) {
+            if (request.ids().size() > MAX_BULK_IDS) {
+                throw new IllegalArgumentException("At most " + MAX_BULK_IDS + " ids can be changed at once");
+            }
+            criteria.add(ExpenseSpecifications.idIn(request.ids()));
+        }
+        addCategoryAndDateCriteria(criteria, request.category(), request.from(), request.to());
+        if (criteria.size() == 1) {
+            throw new IllegalArgumentException("Select expenses by ids, category or date range");
+        }
+        return Specification.allOf(criteria);
+    }
+
+    // Once per batch, not per row: rollups are recomputed for the user and the caches reload on the new version
+    private void bulkChanged(Long userId, int affected) {
+        if (affected == 0) {
+            return;
+        }
+        expenseRollupService.rebuildUser(userId);
+        userRepository.incrementDataVersion(userId);
+        expenseColumnCache.evict(userId);
+        expenseSearchIndex.evict(userId);
+    }
+
+    @Override
+    public long getDataVersion(Long userId) {
+        return userRepository.findDataVersionById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
 
     @Override
     public List<ExpenseSummaryDTO> getExpenseSummaryByCategory(Long userId, int month, int year) {
-        return expenseRepository.findExpenseSummaryByCategory(userId, month, year);
+        requireSummaryYear(year);
+        if (month < 1 || month > 12) {
+            throw new IllegalArgumentException("month must be between 1 and 12");
+        }
+        LocalDate start = LocalDate.of(year, month, 1);
+        return expenseColumnCache.categoryTotals(userId, start, start.plusMonths(1))
+                .orElseGet(() -> expenseRollupService.getCategorySummary(userId, month, year));
     }
 
     @Override
     public List<MonthlyExpenseSummaryDTO> getMonthlyExpenseSummary(Long userId, int year) {
-        return expenseRepository.findMonthlyExpenseSummary(userId, year);
+        requireSummaryYear(year);
+        return expenseColumnCache.monthlyTotals(userId, year)
+                .orElseGet(() -> expenseRollupService.getMonthlySummary(userId, year));
+    }
+
+    // The years a DATE column can hold, as for exports
+    private static void requireSummaryYear(int year) {
+        if (year < EXPORT_MIN_DATE.getYear() || year > EXPORT_MAX_DATE.getYear()) {
+            throw new IllegalArgumentException("year must be between " + EXPORT_MIN_DATE.getYear() + " and " + EXPORT_MAX_DATE.getYear());
+        }
     }
-}
\ No newline at end of file
+}
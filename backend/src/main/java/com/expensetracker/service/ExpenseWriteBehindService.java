@@ -0,0 +1,503 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.ServiceBusyException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind path for single expense creates. An accepted expense gets its id from the
+ * expense sequence, is appended to a local log and acknowledged; a background writer then stores
+ * queued expenses in batched transactions (rows, rollups and data version together) and advances the
+ * log checkpoint. On startup everything after the checkpoint is replayed. Because ids are assigned up
+ * front, replay skips rows that are already stored, so a crash between commit and checkpoint cannot
+ * duplicate an expense.
+ *
+ * <p>A batch the database refuses is retried row by row; rows it rejects outright go to the log's
+ * dead-letter file so they cannot hold up the rest of the queue. The queue is capped: once it is full,
+ * new expenses are turned away with 503 until the writer catches up.
+ *
+ * <p>Reads see their own writes: {@link #awaitStored(Long)} blocks until the user's queued expenses are
+ * stored, and the web layer calls it before any non-create request from that user.
+ */
+@Service
+public class ExpenseWriteBehindService implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseWriteBehindService.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO expenses (id, user_id, description, amount_cents, date, category) VALUES (?, ?, ?, ?, ?, ?)";
+
+    public enum FsyncPolicy {
+        // Acknowledge only once the entry is on disk; concurrent appends share one sync
+        ALWAYS,
+        // Sync on a timer; a power loss can drop the last interval's acknowledged expenses
+        INTERVAL,
+        // Leave flushing to the OS; survives a process crash but not a power loss
+        NEVER
+    }
+
+    // One line of the log
+    record LoggedExpense(long id, long userId, String description, long amountCents, LocalDate date, String category) {
+    }
+
+    private record Queued(LoggedExpense expense, long endOffset) {
+    }
+
+    // One line of the dead-letter file
+    record DeadLetter(LoggedExpense expense, String error) {
+    }
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseColumnCache expenseColumnCache;
+
+    @Autowired
+    private ExpenseSearchIndex expenseSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.expenses.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.expenses.write-behind.log-dir:data/expense-log}")
+    private Path logDirectory;
+
+    @Value("${app.expenses.write-behind.fsync:ALWAYS}")
+    private FsyncPolicy fsyncPolicy;
+
+    @Value("${app.expenses.write-behind.fsync-interval-ms:100}")
+    private long fsyncIntervalMillis;
+
+    @Value("${app.expenses.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${app.expenses.write-behind.read-timeout-ms:5000}")
+    private long readTimeoutMillis;
+
+    @Value("${app.expenses.write-behind.max-queued:10000}")
+    private int maxQueued;
+
+    @Value("${app.expenses.write-behind.compact-size:16MB}")
+    private DataSize compactSize;
+
+    @Value("${app.expenses.batch-size:500}")
+    private int batchSize;
+
+    // Guards log appends, the queue and the per-user counts; waiting readers are notified on it
+    private final Object lock = new Object();
+    private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+    private final Map<Long, Integer> queuedByUser = new HashMap<>();
+    // Bytes appended since startup; only ever compared with syncedBytes
+    private long appendedBytes;
+
+    private final Object syncLock = new Object();
+    private long syncedBytes;
+
+    // Only one drain at a time, whether from the writer thread, a waiting reader's nudge or shutdown
+    private final Object drainLock = new Object();
+
+    private ExpenseIngestLog log;
+    private ScheduledExecutorService writer;
+    private SessionFactoryImplementor sessionFactory;
+    private BeforeExecutionGenerator idGenerator;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        idGenerator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Expense.class).getGenerator();
+        try {
+            log = new ExpenseIngestLog(logDirectory);
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open expense log in " + logDirectory, e);
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "expense-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::drain, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+            writer.scheduleWithFixedDelay(this::syncQuietly, fsyncIntervalMillis, fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Expense write-behind enabled: log {}, fsync {}", logDirectory.toAbsolutePath(), fsyncPolicy);
+    }
+
+    /**
+     * Validates and logs a new expense, returning it with its id. It is stored asynchronously.
+     *
+     * @throws IllegalArgumentException if the expense could never be stored
+     * @throws ServiceBusyException if the queue is full
+     */
+    public Expense append(Expense expense, Long userId) {
+        ExpenseServiceImpl.requireValid(expense);
+        long id = nextId(expense);
+        LoggedExpense entry = new LoggedExpense(id, userId, expense.getDescription(), expense.getAmountCents(),
+                expense.getDate(), expense.getCategory());
+        String line;
+        try {
+            line = objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Expense cannot be serialised: " + e.getOriginalMessage());
+        }
+
+        long appendedThrough;
+        boolean fullBatch;
+        try {
+            synchronized (lock) {
+                if (queue.size() >= maxQueued) {
+                    // Nothing is logged, so the client can simply retry once the writer has caught up
+                    writer.execute(this::drain);
+                    throw new ServiceBusyException("Too many expenses are waiting to be stored, please retry shortly", 1);
+                }
+                long endOffset = log.append(line);
+                appendedBytes += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                appendedThrough = appendedBytes;
+                queue.add(new Queued(entry, endOffset));
+                queuedByUser.merge(userId, 1, Integer::sum);
+                fullBatch = queue.size() == batchSize;
+            }
+            if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                syncThrough(appendedThrough);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to expense log", e);
+        }
+        if (fullBatch) {
+            writer.execute(this::drain);
+        }
+
+        expense.setId(id);
+        return expense;
+    }
+
+    /**
+     * Blocks until every expense this user has had acknowledged is stored.
+     *
+     * @throws ResponseStatusException 503 if the writer cannot catch up within the configured timeout
+     */
+    public void awaitStored(Long userId) {
+        synchronized (lock) {
+            if (!queuedByUser.containsKey(userId)) {
+                return;
+            }
+        }
+        writer.execute(this::drain);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readTimeoutMillis);
+        synchronized (lock) {
+            while (queuedByUser.containsKey(userId)) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Recent expenses are still being stored");
+                }
+                try {
+                    lock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while storing recent expenses");
+                }
+            }
+        }
+    }
+
+    // Group commit: whoever syncs covers every append made before it, so later callers usually return at once
+    private void syncThrough(long bytes) throws IOException {
+        synchronized (syncLock) {
+            if (syncedBytes >= bytes) {
+                return;
+            }
+            long target;
+            synchronized (lock) {
+                target = appendedBytes;
+            }
+            log.force();
+            syncedBytes = target;
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            long target;
+            synchronized (lock) {
+                target = appendedBytes;
+            }
+            syncThrough(target);
+        } catch (IOException e) {
+            logger.error("Failed to sync expense log", e);
+        }
+    }
+
+    private long nextId(Expense expense) {
+        // Draws from the same pooled sequence as JPA inserts; most calls are served from memory
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return ((Number) idGenerator.generate((SharedSessionContractImplementor) session, expense, null, EventType.INSERT)).longValue();
+        }
+    }
+
+    /**
+     * Stores queued expenses batch by batch until the queue is empty or the database cannot be reached. A
+     * failed batch is retried one row at a time: rows the database rejects are dead-lettered, and any other
+     * failure leaves the rest queued for the next run.
+     */
+    void drain() {
+        synchronized (drainLock) {
+            while (true) {
+                List<Queued> batch = new ArrayList<>(batchSize);
+                synchronized (lock) {
+                    Iterator<Queued> queued = queue.iterator();
+                    while (queued.hasNext() && batch.size() < batchSize) {
+                        batch.add(queued.next());
+                    }
+                }
+                if (batch.isEmpty()) {
+                    return;
+                }
+
+                try {
+                    store(batch);
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to store {} queued expenses; retrying them one by one", batch.size(), e);
+                    if (!storeOneByOne(batch)) {
+                        return;
+                    }
+                    continue;
+                }
+                completed(batch);
+            }
+        }
+    }
+
+    // Returns false if a row could neither be stored nor dead-lettered; it and the rows behind it stay queued
+    private boolean storeOneByOne(List<Queued> batch) {
+        for (Queued queued : batch) {
+            try {
+                store(List.of(queued));
+            } catch (RuntimeException e) {
+                if (!isRejected(e)) {
+                    logger.error("Failed to store queued expense id={}; will retry", queued.expense().id(), e);
+                    return false;
+                }
+                try {
+                    String reason = ((NonTransientDataAccessException) e).getMostSpecificCause().getMessage();
+                    log.appendDeadLetter(objectMapper.writeValueAsString(new DeadLetter(queued.expense(), reason)));
+                    logger.error("Moved rejected expense id={} of user id={} to the dead-letter file: {}",
+                            queued.expense().id(), queued.expense().userId(), reason);
+                } catch (IOException deadLetterFailure) {
+                    logger.error("Failed to dead-letter expense id={}; will retry", queued.expense().id(), deadLetterFailure);
+                    return false;
+                }
+            }
+            completed(List.of(queued));
+        }
+        return true;
+    }
+
+    // The database refused the row itself (a constraint, a value out of range) rather than being unreachable
+    private static boolean isRejected(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof NonTransientDataAccessResourceException);
+    }
+
+    // Takes entries that are stored or dead-lettered off the head of the queue and checkpoints past them
+    private void completed(List<Queued> done) {
+        long checkpoint = done.get(done.size() - 1).endOffset();
+        synchronized (lock) {
+            for (Queued stored : done) {
+                queue.poll();
+                queuedByUser.computeIfPresent(stored.expense().userId(), (user, count) -> count == 1 ? null : count - 1);
+            }
+            lock.notifyAll();
+        }
+        try {
+            log.writeCheckpoint(checkpoint);
+            compactIfLarge(checkpoint);
+        } catch (IOException e) {
+            // Rows are stored; at worst they are replayed and skipped after a restart
+            logger.error("Failed to checkpoint expense log", e);
+        }
+    }
+
+    // Once the stored prefix reaches compact-size, rewrite the log without it; the unstored tail is bounded by the queue cap
+    private void compactIfLarge(long checkpoint) throws IOException {
+        synchronized (lock) {
+            if (checkpoint - log.start() >= compactSize.toBytes()) {
+                log.compact(checkpoint);
+            }
+        }
+    }
+
+    private void store(List<Queued> batch) {
+        List<Long> ids = new ArrayList<>(batch.size());
+        Set<Long> userIds = new HashSet<>();
+        for (Queued queued : batch) {
+            ids.add(queued.expense().id());
+            userIds.add(queued.expense().userId());
+        }
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Set<Long> stored = new HashSet<>(selectIds("SELECT id FROM expenses WHERE id IN ", ids));
+            Set<Long> liveUsers = new HashSet<>(selectIds("SELECT id FROM users WHERE id IN ", new ArrayList<>(userIds)));
+
+            List<LoggedExpense> rows = new ArrayList<>(batch.size());
+            Map<Long, List<Expense>> byUser = new LinkedHashMap<>();
+            for (Queued queued : batch) {
+                LoggedExpense row = queued.expense();
+                if (stored.contains(row.id())) {
+                    continue;
+                }
+                if (!liveUsers.contains(row.userId())) {
+                    logger.warn("Dropping queued expense id={} of deleted user id={}", row.id(), row.userId());
+                    continue;
+                }
+                rows.add(row);
+                byUser.computeIfAbsent(row.userId(), user -> new ArrayList<>())
+                        .add(new Expense(row.id(), row.description(), row.amountCents(), row.date(), row.category(), null));
+            }
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (statement, row) -> {
+                statement.setLong(1, row.id());
+                statement.setLong(2, row.userId());
+                statement.setString(3, row.description());
+                statement.setLong(4, row.amountCents());
+                statement.setObject(5, row.date(), Types.DATE);
+                statement.setString(6, row.category());
+            });
+            byUser.forEach((userId, expenses) -> {
+                expenseRollupService.addAll(userId, expenses);
+                userRepository.incrementDataVersion(userId);
+                expenseColumnCache.added(userId, expenses);
+                expenseSearchIndex.added(userId, expenses);
+            });
+        });
+    }
+
+    private List<Long> selectIds(String sqlPrefix, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+        return jdbcTemplate.queryForList(sqlPrefix + "(" + placeholders + ")", Long.class, ids.toArray());
+    }
+
+    /**
+     * Queues every entry after the checkpoint and tries to store them. Runs at startup, before the
+     * writer thread exists.
+     */
+    void replay() throws IOException {
+        long checkpoint = log.readCheckpoint();
+        if (checkpoint < log.start() || checkpoint > log.size()) {
+            // Not an offset in this log (a checkpoint from an older log, or none): replay all of it
+            checkpoint = log.start();
+        }
+        // Dead-lettered entries stay in the log until the checkpoint passes them; they must not be retried
+        Set<Long> deadLettered = new HashSet<>();
+        for (String line : log.readDeadLetters()) {
+            try {
+                deadLettered.add(objectMapper.readValue(line, DeadLetter.class).expense().id());
+            } catch (JsonProcessingException e) {
+                logger.error("Skipping unreadable dead-letter entry", e);
+            }
+        }
+        int[] replayed = new int[1];
+        synchronized (lock) {
+            log.readFrom(checkpoint, (line, endOffset) -> {
+                try {
+                    LoggedExpense entry = objectMapper.readValue(line, LoggedExpense.class);
+                    if (deadLettered.contains(entry.id())) {
+                        return;
+                    }
+                    queue.add(new Queued(entry, endOffset));
+                    queuedByUser.merge(entry.userId(), 1, Integer::sum);
+                    replayed[0]++;
+                } catch (JsonProcessingException e) {
+                    logger.error("Skipping unreadable expense log entry ending at offset {}", endOffset, e);
+                }
+            });
+        }
+        if (replayed[0] > 0) {
+            logger.info("Replaying {} logged expenses from offset {}", replayed[0], checkpoint);
+            drain();
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (!enabled || writer == null) {
+            return;
+        }
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+        drain();
+        syncQuietly();
+        log.close();
+    }
+}
@@ -0,0 +1,178 @@
+package com.expensetracker.service;
+
+import com.expensetracker.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token buckets that keep password checks from being used for guessing or flooding.
+ * Every login or registration spends a token of the client address; failed logins also spend a token
+ * of the username, and a username with none left is refused before its password is checked. Refusals
+ * are {@link TooManyRequestsException}s carrying the time until the next token.
+ *
+ * <p>State is per instance and lost on restart. Buckets that have refilled are dropped once more than
+ * {@code max-tracked-keys} are held, and if that is not enough (many distinct attackers) the scope is
+ * cleared, trading throttle state for bounded memory.
+ */
+@Service
+public class LoginAttemptThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptThrottle.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.auth.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.auth.throttle.per-address.burst:20}")
+    private int addressBurst;
+
+    @Value("${app.auth.throttle.per-address.per-minute:20}")
+    private double addressPerMinute;
+
+    @Value("${app.auth.throttle.per-username.burst:5}")
+    private int usernameBurst;
+
+    @Value("${app.auth.throttle.per-username.per-minute:1}")
+    private double usernamePerMinute;
+
+    @Value("${app.auth.throttle.max-tracked-keys:100000}")
+    private int maxTrackedKeys;
+
+    private final Map<String, Bucket> addresses = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> usernames = new ConcurrentHashMap<>();
+    private Counter addressRejections;
+    private Counter usernameRejections;
+
+    @PostConstruct
+    void registerMeters() {
+        addressRejections = Counter.builder("auth.throttle.rejected").tag("scope", "address")
+                .description("Login and registration attempts refused by the throttle")
+                .register(meterRegistry);
+        usernameRejections = Counter.builder("auth.throttle.rejected").tag("scope", "username")
+                .description("Login and registration attempts refused by the throttle")
+                .register(meterRegistry);
+        Gauge.builder("auth.throttle.tracked", addresses, Map::size).tag("scope", "address")
+                .description("Keys with throttle state held in memory")
+                .register(meterRegistry);
+        Gauge.builder("auth.throttle.tracked", usernames, Map::size).tag("scope", "username")
+                .description("Keys with throttle state held in memory")
+                .register(meterRegistry);
+    }
+
+    // Spends one attempt of the client address
+    public void acquireForAddress(String address) {
+        if (!enabled) {
+            return;
+        }
+        long waitNanos = bucket(addresses, address == null ? "" : address, addressBurst, addressPerMinute).take(System.nanoTime());
+        if (waitNanos > 0) {
+            addressRejections.increment();
+            throw new TooManyRequestsException("Too many attempts from this address, please retry later", seconds(waitNanos));
+        }
+    }
+
+    // Refuses a username whose failed-login budget is spent; does not spend anything itself
+    public void checkUsername(String username) {
+        if (!enabled) {
+            return;
+        }
+        Bucket bucket = usernames.get(key(username));
+        long waitNanos = (bucket == null) ? 0 : bucket.waitNanos(System.nanoTime());
+        if (waitNanos > 0) {
+            usernameRejections.increment();
+            throw new TooManyRequestsException("Too many failed logins for this user, please retry later", seconds(waitNanos));
+        }
+    }
+
+    public void recordFailure(String username) {
+        if (enabled) {
+            bucket(usernames, key(username), usernameBurst, usernamePerMinute).take(System.nanoTime());
+        }
+    }
+
+    private Bucket bucket(Map<String, Bucket> scope, String key, int burst, double perMinute) {
+        Bucket bucket = scope.get(key);
+        if (bucket == null) {
+            if (scope.size() >= maxTrackedKeys) {
+                sweep(scope);
+            }
+            bucket = scope.computeIfAbsent(key, k -> new Bucket(burst, perMinute / TimeUnit.MINUTES.toNanos(1), System.nanoTime()));
+        }
+        return bucket;
+    }
+
+    private void sweep(Map<String, Bucket> scope) {
+        long now = System.nanoTime();
+        scope.values().removeIf(bucket -> bucket.isFull(now));
+        if (scope.size() >= maxTrackedKeys) {
+            logger.warn("Login throttle is tracking {} keys; clearing them to bound memory", scope.size());
+            scope.clear();
+        }
+    }
+
+    private static String key(String username) {
+        return (username == null) ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private static final class Bucket {
+
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(int capacity, double tokensPerNano, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = tokensPerNano;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        // Takes a token and returns 0, or returns how long until one is available
+        synchronized long take(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return waitFor(1);
+        }
+
+        synchronized long waitNanos(long now) {
+            refill(now);
+            return (tokens >= 1) ? 0 : waitFor(1);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private long waitFor(double needed) {
+            return (long) Math.ceil((needed - tokens) / tokensPerNano);
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.expensetracker.service;
 
 import com.expensetracker.model.Role;
 import com.expensetracker.model.User;
+import com.expensetracker.payload.AdminUserPage;
 
 import java.util.List;
 import java.util.Optional;
@@ -17,4 +18,6 @@ public interface UserService {
     User registerUser(User user);
 
     User updateUserRole(Long userId, Role role);
+
+    AdminUserPage getUserSummaries(String search, int page, int size, String sort, boolean descending);
 }
\ No newline at end of file
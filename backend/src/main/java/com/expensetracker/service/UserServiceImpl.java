@@ -2,23 +2,57 @@ package com.expensetracker.service;
 
 import com.expensetracker.model.User;
 import com.expensetracker.model.Role;
+import com.expensetracker.payload.AdminUserPage;
+import com.expensetracker.payload.AdminUserSummaryDTO;
 import com.expensetracker.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UserServiceImpl implements UserService {
 
+    // Sortable admin overview columns and the JPQL expressions they order by
+    private static final Map<String, String> SUMMARY_SORT_EXPRESSIONS = Map.of(
+            "id", "u.id",
+            "username", "u.username",
+            "role", "u.role",
+            "expenseCount", "COUNT(e.id)",
+            "totalSpend", "COALESCE(SUM(e.amountCents), 0)",
+            "lastExpenseDate", "MAX(e.date)");
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseColumnCache expenseColumnCache;
+
+    @Autowired
+    private ExpenseSearchIndex expenseSearchIndex;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     @Override
     public User registerUser(User user) {
         // Set default role for all new users
@@ -31,6 +65,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User updateUserRole(Long userId, Role role) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -40,7 +75,9 @@ public class UserServiceImpl implements UserService {
         }
         
         user.setRole(role);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        evictUserDetailsAfterCommit(Set.of(saved.getUsername()));
+        return saved;
     }
 
     @Override
@@ -54,13 +91,59 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public User save(User user) {
-        return userRepository.save(user);
+        // On a rename the entry cached under the old username must go too
+        Set<String> usernames = new LinkedHashSet<>();
+        if (user.getId() != null) {
+            userRepository.findStoredUsernameById(user.getId()).ifPresent(usernames::add);
+        }
+        User saved = userRepository.save(user);
+        usernames.add(saved.getUsername());
+        evictUserDetailsAfterCommit(usernames);
+        return saved;
     }
 
     @Override
+    @Transactional
     public void deleteById(Long id) {
+        // Expenses go with the user through the cascade; the derived rollup rows have no relation and are cleared here
+        expenseRollupService.clearUser(id);
+        userRepository.findStoredUsernameById(id).ifPresent(username -> evictUserDetailsAfterCommit(Set.of(username)));
         userRepository.deleteById(id);
+        expenseColumnCache.evict(id);
+        expenseSearchIndex.evict(id);
+    }
+
+    // Evicting before commit would let a concurrent request re-cache the old row until the entry expires
+    private void evictUserDetailsAfterCommit(Set<String> usernames) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            usernames.forEach(userDetailsService::evictUser);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                usernames.forEach(userDetailsService::evictUser);
+            }
+        });
+    }
+
+    @Override
+    public AdminUserPage getUserSummaries(String search, int page, int size, String sort, boolean descending) {
+        String expression = SUMMARY_SORT_EXPRESSIONS.get(sort);
+        if (expression == null) {
+            throw new IllegalArgumentException("Unsupported sort column: " + sort);
+        }
+        // Aggregates are not entity properties, so the order is passed through as JPQL; id keeps pages stable on ties
+        Sort order = JpaSort.unsafe(descending ? Sort.Direction.DESC : Sort.Direction.ASC, expression)
+                .andUnsafe(Sort.Direction.ASC, "u.id");
+        String pattern = (search == null || search.isBlank())
+                ? null
+                : "%" + search.trim().toLowerCase(Locale.ROOT).replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        Page<AdminUserSummaryDTO> result = userRepository.findAdminSummaries(pattern, PageRequest.of(page, size, order));
+        return new AdminUserPage(result.getContent(), page, size, result.getTotalElements(), result.getTotalPages());
     }
 
     @Override
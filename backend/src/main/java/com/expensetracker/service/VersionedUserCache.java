@@ -0,0 +1,241 @@
+package com.expensetracker.service;
+
+import com.expensetracker.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Per-user entries built from each user's expenses, loaded lazily and evicted whole, least recently used
+ * first, once their combined size exceeds a byte budget. Backs {@link ExpenseColumnCache} and
+ * {@link ExpenseSearchIndex}.
+ *
+ * <p>Entries are kept in step with the user's data version, which each expense transaction bumps exactly
+ * once. A write hook notes the version its transaction will commit and applies its change after commit
+ * only if the entry is exactly one version behind: after-commit hooks of concurrent transactions can run
+ * in either order, and a change cannot be applied on top of one that has not been. Anything else evicts
+ * the user. Reads compare the entry's version with the database's and reload on any difference, so a
+ * change that is missed (e.g. made by another instance) only costs a reload.
+ *
+ * @param <R> row projection the entry is built from
+ * @param <E> per-user entry; guarded by its own monitor
+ */
+final class VersionedUserCache<R, E extends VersionedUserCache.Entry<R>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionedUserCache.class);
+
+    abstract static class Entry<R> {
+
+        long version;
+
+        Entry(long version) {
+            this.version = version;
+        }
+
+        abstract long bytes();
+
+        // Adds the row, or replaces the one with the same id
+        abstract void put(R row);
+    }
+
+    private final String name;
+    private final long maxBytes;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Function<Long, Stream<R>> rowsByUser;
+    private final LongFunction<E> newEntry;
+
+    // Access-ordered, so iteration starts at the least recently used user
+    private final LinkedHashMap<Long, E> users = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * @param rowsByUser streams a user's rows; called inside a read-only transaction and closed after use
+     * @param newEntry   creates an empty entry at the given version
+     */
+    VersionedUserCache(String name, long maxBytes, UserRepository userRepository, PlatformTransactionManager transactionManager,
+                       Function<Long, Stream<R>> rowsByUser, LongFunction<E> newEntry) {
+        this.name = name;
+        this.maxBytes = maxBytes;
+        this.userRepository = userRepository;
+        this.transactionManager = transactionManager;
+        this.rowsByUser = rowsByUser;
+        this.newEntry = newEntry;
+    }
+
+    /**
+     * The user's entry if it matches the database's data version, reloaded otherwise; null if the user
+     * does not exist or their entry alone would exceed the budget.
+     */
+    E current(Long userId) {
+        long version = userRepository.findDataVersionById(userId).orElse(-1L);
+        E entry;
+        synchronized (this) {
+            entry = users.get(userId);
+        }
+        if (entry != null) {
+            synchronized (entry) {
+                if (entry.version == version) {
+                    return entry;
+                }
+            }
+            evict(userId);
+        }
+        if (version < 0) {
+            return null;
+        }
+        return load(userId);
+    }
+
+    // Builds the user's entry from the database and caches it; null if it would exceed the budget
+    E load(Long userId) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        E loaded = readOnly.execute(status -> {
+            long before = userRepository.findDataVersionById(userId).orElse(-1L);
+            E entry = newEntry.apply(before);
+            try (Stream<R> rows = rowsByUser.apply(userId)) {
+                Iterator<R> it = rows.iterator();
+                while (it.hasNext()) {
+                    entry.put(it.next());
+                    if (entry.bytes() > maxBytes) {
+                        logger.debug("Expenses of user id={} exceed the {} budget", userId, name);
+                        return null;
+                    }
+                }
+            }
+            // Without a snapshot a write can land mid-scan; the rows would then match neither version
+            long after = userRepository.findDataVersionById(userId).orElse(-1L);
+            return (after == before) ? entry : null;
+        });
+        if (loaded == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            E previous = users.put(userId, loaded);
+            if (previous != null) {
+                usedBytes -= previous.bytes();
+            }
+            usedBytes += loaded.bytes();
+            evictOverBudget();
+        }
+        return loaded;
+    }
+
+    /**
+     * Applies {@code change} to the user's entry once the caller's transaction commits. Must be called
+     * after the caller has bumped the data version in that transaction.
+     */
+    void afterCommit(Long userId, Consumer<E> change) {
+        synchronized (this) {
+            if (!users.containsKey(userId)) {
+                // Not cached; a load before this commits sees the old version and is replaced on the next read
+                return;
+            }
+        }
+        // The caller's version bump holds the row lock, so this is the version its commit publishes
+        long committed = userRepository.findDataVersionById(userId).orElse(-1L);
+        Runnable apply = () -> {
+            E entry;
+            synchronized (this) {
+                entry = users.get(userId);
+            }
+            if (entry == null) {
+                return;
+            }
+            boolean inOrder;
+            long delta = 0;
+            synchronized (entry) {
+                if (entry.version >= committed) {
+                    // Loaded after this commit, so the change is already in
+                    return;
+                }
+                inOrder = entry.version == committed - 1;
+                if (inOrder) {
+                    long before = entry.bytes();
+                    change.accept(entry);
+                    entry.version = committed;
+                    delta = entry.bytes() - before;
+                }
+            }
+            if (!inOrder) {
+                // An earlier commit's change is still to come; applying this one first would skip it
+                evict(userId, entry);
+            } else if (delta != 0) {
+                resized(userId, entry, delta);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    synchronized void evict(Long userId) {
+        E entry = users.remove(userId);
+        if (entry != null) {
+            usedBytes -= entry.bytes();
+        }
+    }
+
+    synchronized void clear() {
+        users.clear();
+        usedBytes = 0;
+    }
+
+    // Whether this exact entry is still the user's cached one
+    synchronized boolean holds(Long userId, E entry) {
+        return users.get(userId) == entry;
+    }
+
+    synchronized int size() {
+        return users.size();
+    }
+
+    synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    long maxBytes() {
+        return maxBytes;
+    }
+
+    private synchronized void evict(Long userId, E entry) {
+        if (users.get(userId) == entry) {
+            evict(userId);
+        }
+    }
+
+    private synchronized void resized(Long userId, E entry, long delta) {
+        if (users.get(userId) == entry) {
+            usedBytes += delta;
+            evictOverBudget();
+        }
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, E>> eldest = users.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            usedBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+        }
+    }
+}
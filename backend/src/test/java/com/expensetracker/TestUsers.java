@@ -0,0 +1,24 @@
+package com.expensetracker;
+
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.UserRepository;
+
+/**
+ * Saves the plain users that tests hang their expenses on.
+ */
+public final class TestUsers {
+
+    private TestUsers() {
+    }
+
+    // A USER with the given username and username@example.com as email
+    public static User create(UserRepository userRepository, String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hash");
+        user.setRole(Role.USER);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,71 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.Expense;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory category and month totals (in cents) over a user's expenses: Collectors.groupingBy
+ * versus a single pass into primitive long accumulators. Sizes cover typical to very large histories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ExpenseAggregationBenchmark {
+
+    private static final String[] CATEGORIES = {"Food", "Transport", "Rent", "Utilities", "Health", "Leisure", "Other"};
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Expense> expenses;
+
+    @Setup
+    public void setUp() {
+        expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            expenses.add(new Expense((long) i, "Expense " + i, i % 10_000,
+                    LocalDate.of(2024, 1, 1).plusDays(i % 366), CATEGORIES[i % CATEGORIES.length], null));
+        }
+    }
+
+    @Benchmark
+    public Map<String, Long> categoryGroupingBy() {
+        return expenses.stream()
+                .collect(Collectors.groupingBy(Expense::getCategory, Collectors.summingLong(Expense::getAmountCents)));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> monthGroupingBy() {
+        return expenses.stream()
+                .collect(Collectors.groupingBy(e -> e.getDate().getMonthValue(), Collectors.summingLong(Expense::getAmountCents)));
+    }
+
+    @Benchmark
+    public Map<String, long[]> categorySinglePass() {
+        Map<String, long[]> totals = new HashMap<>();
+        for (Expense expense : expenses) {
+            totals.computeIfAbsent(expense.getCategory(), k -> new long[1])[0] += expense.getAmountCents();
+        }
+        return totals;
+    }
+
+    @Benchmark
+    public long[] monthSinglePass() {
+        long[] totals = new long[13];
+        for (Expense expense : expenses) {
+            totals[expense.getDate().getMonthValue()] += expense.getAmountCents();
+        }
+        return totals;
+    }
+}
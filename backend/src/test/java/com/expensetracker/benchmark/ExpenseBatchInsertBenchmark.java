@@ -0,0 +1,80 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.ExpenseBatchResultDTO;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.service.ExpenseService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import throughput through ExpenseService.addExpenses against in-memory H2.
+ * Each invocation imports {@code rows} expenses; rows/sec = rows / score. The web
+ * context still starts (on a random port) because WebConfig enables MVC explicitly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class ExpenseBatchInsertBenchmark {
+
+    private static final String[] CATEGORIES = {"Food", "Transport", "Rent", "Utilities", "Other"};
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                .profiles("h2")
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        expenseService = context.getBean(ExpenseService.class);
+
+        User user = new User();
+        user.setUsername("bulkbench");
+        user.setEmail("bulkbench@example.com");
+        user.setPassword("hash");
+        user.setRole(Role.USER);
+        userId = context.getBean(UserRepository.class).save(user).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExpenseBatchResultDTO importRows() {
+        Iterator<Expense> generated = new Iterator<>() {
+            private int produced;
+
+            @Override
+            public boolean hasNext() {
+                return produced < rows;
+            }
+
+            @Override
+            public Expense next() {
+                int i = produced++;
+                return new Expense(null, "Imported expense " + i, i % 10_000,
+                        LocalDate.of(2020, 1, 1).plusDays(i / 100), CATEGORIES[i % CATEGORIES.length], null);
+            }
+        };
+        return expenseService.addExpenses(generated, userId);
+    }
+}
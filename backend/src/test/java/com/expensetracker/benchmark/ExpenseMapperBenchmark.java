@@ -0,0 +1,40 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.mapper.ExpenseMapper;
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-object cost of ExpenseMapper conversions, including the amount's Double/BigDecimal round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseMapperBenchmark {
+
+    private Expense expense;
+    private ExpenseDTO expenseDTO;
+
+    @Setup
+    public void setUp() {
+        expense = new Expense(1L, "Groceries", 4237, LocalDate.of(2024, 3, 15), "Food", null);
+        expenseDTO = ExpenseMapper.toDTO(expense);
+    }
+
+    @Benchmark
+    public ExpenseDTO toDTO() {
+        return ExpenseMapper.toDTO(expense);
+    }
+
+    @Benchmark
+    public Expense toEntity() {
+        return ExpenseMapper.toEntity(expenseDTO);
+    }
+}
@@ -0,0 +1,62 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.hibernate6.Hibernate6Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of expense lists with the modules the application registers
+ * (JacksonConfig's Hibernate6Module and JavaTimeModule): the entities GET /api/expenses used to return
+ * against the ExpenseResponse records it returns now. Both produce the same JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpenseSerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private ObjectWriter responseWriter;
+    private List<Expense> expenses;
+    private List<ExpenseResponse> responses;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new Hibernate6Module())
+                .registerModule(new JavaTimeModule());
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Expense.class));
+        responseWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ExpenseResponse.class));
+
+        expenses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            expenses.add(new Expense((long) i, "Expense " + i, i % 10_000,
+                    LocalDate.of(2024, 1, 1).plusDays(i % 366), "Category " + (i % 8), null));
+        }
+        responses = expenses.stream().map(ExpenseResponse::of).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return writer.writeValueAsBytes(expenses);
+    }
+
+    @Benchmark
+    public byte[] serializeResponses() throws Exception {
+        return responseWriter.writeValueAsBytes(responses);
+    }
+}
@@ -0,0 +1,74 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.config.JwtPrincipal;
+import com.expensetracker.config.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token in JwtFilter.
+ * {@code legacyFilterPath} reproduces the old behaviour (key and parser rebuilt per call, token parsed three times);
+ * {@code verifyOnce} is the current single-parse path, and {@code generateToken} covers login.
+ * Add {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String SECRET = "_bD7PzTx4Uwx7VfzOxOF60p9Ghuewso728db7MX9_g47VF53TYHVwpiWTX-rwfbk";
+
+    private JwtUtil jwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expirationMillis", 86400000L);
+        jwtUtil.init();
+        userDetails = new User("benchuser", "", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtUtil.generateToken(userDetails);
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String username = legacyParse(token).getSubject();
+        // The old validateToken: username extracted again, then an expiry check
+        boolean sameUser = legacyParse(token).getSubject().equals(username);
+        return sameUser && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public JwtPrincipal verifyOnce() {
+        return jwtUtil.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userDetails);
+    }
+}
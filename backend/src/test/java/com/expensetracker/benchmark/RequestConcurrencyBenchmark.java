@@ -0,0 +1,132 @@
+package com.expensetracker.benchmark;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform vs virtual request threads under a burst of {@code connections} concurrent
+ * GET /api/expenses?limit=50 calls (JWT filter, JPA query, JSON) against in-memory H2.
+ * Both variants use the same connection pool size, so only the request threading differs.
+ * The {@code virtual} variant needs Java 21+ (build with -Pbenchmark,virtual-threads).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class RequestConcurrencyBenchmark {
+
+    private static final int SEEDED_EXPENSES = 500;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000"})
+    public int connections;
+
+    private ConfigurableApplicationContext context;
+    private ExecutorService clientExecutor;
+    private HttpClient client;
+    private HttpRequest listRequest;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21+, running on " + Runtime.version());
+        }
+        context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                .profiles("h2")
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.tomcat.threads.max=200",
+                        "server.tomcat.max-connections=" + Math.max(8192, connections * 2),
+                        "spring.datasource.hikari.maximum-pool-size=50",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        String baseUrl = "http://localhost:" + port + "/api";
+
+        clientExecutor = Executors.newFixedThreadPool(32);
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientExecutor)
+                .build();
+
+        String credentials = "{\"username\":\"loadbench\",\"email\":\"loadbench@example.com\",\"password\":\"loadbench-pass\"}";
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/register"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)).build());
+        String login = send(HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(credentials)).build());
+        String token = new ObjectMapper().readTree(login).get("token").asText();
+
+        StringBuilder rows = new StringBuilder();
+        for (int i = 0; i < SEEDED_EXPENSES; i++) {
+            rows.append("{\"description\":\"Seed ").append(i)
+                    .append("\",\"amount\":").append(i % 100)
+                    .append(",\"date\":\"").append(LocalDate.of(2024, 1, 1).plusDays(i % 365))
+                    .append("\",\"category\":\"Food\"}\n");
+        }
+        send(HttpRequest.newBuilder(URI.create(baseUrl + "/expenses/batch"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(rows.toString())).build());
+
+        listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/expenses?limit=50"))
+                .header("Authorization", "Bearer " + token)
+                .GET().build();
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        clientExecutor.shutdownNow();
+    }
+
+    // One burst: all requests in flight at once, completes when the slowest one returns
+    @Benchmark
+    public int burst() {
+        List<CompletableFuture<HttpResponse<Void>>> inFlight = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            inFlight.add(client.sendAsync(listRequest, HttpResponse.BodyHandlers.discarding()));
+        }
+        int failed = 0;
+        for (CompletableFuture<HttpResponse<Void>> response : inFlight) {
+            if (response.join().statusCode() != 200) {
+                failed++;
+            }
+        }
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + connections + " requests failed");
+        }
+        return connections;
+    }
+}
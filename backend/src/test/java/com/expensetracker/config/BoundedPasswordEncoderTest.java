@@ -0,0 +1,74 @@
+package com.expensetracker.config;
+
+import com.expensetracker.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    // Blocks every hash until released, so the pool and queue can be filled deterministically
+    private static class GatedEncoder implements PasswordEncoder {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+
+    @Test
+    void shedsCallsBeyondPoolAndQueue() throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        GatedEncoder gated = new GatedEncoder();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(gated, 1, 1, Duration.ofSeconds(10), registry)) {
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            assertTrue(gated.started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("b", "hash:b"));
+            while (registry.get("auth.password.queue.depth").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+
+            assertThrows(ServiceBusyException.class, () -> encoder.encode("c"));
+            assertEquals(1, registry.get("auth.password.rejected").tag("reason", "queue_full").counter().count());
+            assertEquals(1, registry.get("auth.password.active").gauge().value());
+
+            gated.release.countDown();
+            assertEquals("hash:a", running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+            assertEquals(2, registry.get("auth.password.queue.wait").timer().count());
+        }
+    }
+
+    @Test
+    void givesUpAfterMaxWait() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        GatedEncoder gated = new GatedEncoder();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(gated, 1, 1, Duration.ofMillis(50), registry)) {
+            assertThrows(ServiceBusyException.class, () -> encoder.encode("slow"));
+            assertEquals(1, registry.get("auth.password.rejected").tag("reason", "timeout").counter().count());
+        } finally {
+            gated.release.countDown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.expensetracker.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "_bD7PzTx4Uwx7VfzOxOF60p9Ghuewso728db7MX9_g47VF53TYHVwpiWTX-rwfbk");
+        ReflectionTestUtils.setField(jwtUtil, "expirationMillis", 60000L);
+        jwtUtil.init();
+    }
+
+    @Test
+    void verifyReturnsIdAndRolesFromToken() {
+        String token = jwtUtil.generateToken(new AuthenticatedUser(42L, "alice", "hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        JwtPrincipal principal = jwtUtil.verify(token).orElseThrow();
+
+        assertEquals(42L, principal.userId());
+        assertEquals("alice", principal.username());
+        assertEquals(List.of("ROLE_ADMIN"), principal.roles());
+    }
+
+    @Test
+    void verifyAcceptsTokensWithoutUserId() {
+        String token = jwtUtil.generateToken(new User("bob", "hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        JwtPrincipal principal = jwtUtil.verify(token).orElseThrow();
+
+        assertNull(principal.userId());
+        assertEquals("bob", principal.username());
+    }
+
+    @Test
+    void verifyRejectsTamperedAndExpiredTokens() {
+        String token = jwtUtil.generateToken(new AuthenticatedUser(1L, "carol", "hash", List.of()));
+        assertEquals(Optional.empty(), jwtUtil.verify(token.substring(0, token.length() - 2) + "xx"));
+        assertEquals(Optional.empty(), jwtUtil.verify("not-a-token"));
+
+        ReflectionTestUtils.setField(jwtUtil, "expirationMillis", -1000L);
+        assertEquals(Optional.empty(), jwtUtil.verify(jwtUtil.generateToken(new AuthenticatedUser(1L, "carol", "hash", List.of()))));
+    }
+}
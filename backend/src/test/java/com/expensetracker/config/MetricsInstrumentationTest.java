@@ -0,0 +1,77 @@
+package com.expensetracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class MetricsInstrumentationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void publishesAuthPersistenceAndPayloadMetrics() throws Exception {
+        String credentials = "{\"username\":\"metricsuser\",\"email\":\"metrics@example.com\",\"password\":\"secret-pass\"}";
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk());
+        String login = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = new ObjectMapper().readTree(login).get("token").asText();
+
+        mockMvc.perform(post("/api/expenses")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Coffee\",\"amount\":3.5,\"date\":\"2024-05-01\",\"category\":\"Food\"}"))
+                .andExpect(status().isOk());
+        String body = mockMvc.perform(get("/api/expenses").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(timerCount("auth.password.encode") >= 1);
+        assertTrue(timerCount("auth.password.matches") >= 1);
+        assertTrue(meterRegistry.get("auth.jwt.generate").timer().count() >= 1);
+        assertTrue(meterRegistry.get("auth.jwt.verify").tag("outcome", "valid").timer().count() >= 2);
+        assertTrue(meterRegistry.get("auth.user.lookup").tag("purpose", "credentials").timer().count() >= 1);
+        assertTrue(meterRegistry.get("spring.data.repository.invocations").tag("repository", "ExpenseRepository").timers()
+                .stream().mapToLong(Timer::count).sum() >= 1);
+
+        DistributionSummary statements = meterRegistry.get("hibernate.request.statements")
+                .tags("method", "GET", "uri", "/api/expenses").summary();
+        assertTrue(statements.totalAmount() >= 1);
+        DistributionSummary loads = meterRegistry.get("hibernate.request.entity.loads")
+                .tags("method", "GET", "uri", "/api/expenses").summary();
+        // The listing selects ExpenseResponse projections, so the meter records requests without entity loads
+        assertTrue(loads.count() >= 1);
+        assertEquals(0, loads.totalAmount());
+        assertTrue(meterRegistry.get("hibernate.request.flushes")
+                .tags("method", "POST", "uri", "/api/expenses").summary().totalAmount() >= 1);
+
+        DistributionSummary responseSize = meterRegistry.get("http.server.response.size")
+                .tags("method", "GET", "uri", "/api/expenses", "status", "200").summary();
+        assertEquals(body.length(), (long) responseSize.max());
+    }
+
+    private long timerCount(String name) {
+        return meterRegistry.get(name).timers().stream().mapToLong(Timer::count).sum();
+    }
+}
@@ -0,0 +1,57 @@
+package com.expensetracker.config;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.service.ExpenseRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class MoneyColumnMigrationTest {
+
+    @Autowired
+    private MoneyColumnMigration migration;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Test
+    void convertsLegacyFloatingPointColumnsToCents() {
+        User user = TestUsers.create(userRepository, "migrationuser");
+        Expense expense = expenseRepository.save(new Expense(null, "Legacy", 0, LocalDate.of(2023, 7, 1), "Food", user));
+
+        jdbcTemplate.execute("ALTER TABLE expenses ADD COLUMN amount DOUBLE");
+        jdbcTemplate.execute("ALTER TABLE expense_rollups ADD COLUMN total DOUBLE");
+        jdbcTemplate.update("UPDATE expenses SET amount = ? WHERE id = ?", 19.99, expense.getId());
+
+        migration.afterSingletonsInstantiated();
+
+        assertEquals(1999L, expenseRepository.findById(expense.getId()).orElseThrow().getAmountCents());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM expense_rollups", Integer.class));
+        assertTrue(jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns"
+                + " WHERE table_name IN ('expenses', 'expense_rollups') AND column_name IN ('amount', 'total')").isEmpty());
+
+        // Leave the shared schema with consistent rollups for other tests
+        assertTrue(expenseRollupService.rebuild().isConsistent());
+    }
+}
@@ -0,0 +1,128 @@
+package com.expensetracker.config;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import com.expensetracker.repository.UserRepository;
+import com.expensetracker.service.ExpenseRollupService;
+import com.expensetracker.service.ExpenseService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements Hibernate prepares around repeated reads: a cache hit costs none, and a
+ * write to the rollup (through Hibernate or alongside a plain JDBC insert) makes the next summary read go
+ * to the database.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+public class SecondLevelCacheTest {
+
+    private static final LocalDate DATE = LocalDate.of(2024, 5, 1);
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRollupRepository expenseRollupRepository;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        // Switched on here rather than by property, so the statistics tests share the default test context
+        statistics.setStatisticsEnabled(true);
+        userId = TestUsers.create(userRepository, "cacheuser" + System.nanoTime()).getId();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void userIsLoadedOnceAndStaysCachedAcrossExpenseWrites() {
+        assertEquals(1, statementsFor(() -> userRepository.findById(userId).orElseThrow()));
+        assertEquals(0, statementsFor(() -> userRepository.findById(userId).orElseThrow()));
+
+        expenseService.addExpense(new Expense(null, "Lunch", 1250, DATE, "Food", null), userId);
+
+        // The data version bump leaves the cached entry alone; the current version is read separately
+        assertEquals(0, statementsFor(() -> userRepository.findById(userId).orElseThrow()));
+        assertEquals(1L, expenseService.getDataVersion(userId));
+    }
+
+    @Test
+    void summaryQueriesAreCachedUntilExpensesChange() {
+        expenseService.addExpense(new Expense(null, "Lunch", 1250, DATE, "Food", null), userId);
+
+        assertEquals(1, statementsFor(this::categorySummary));
+        assertEquals(0, statementsFor(this::categorySummary));
+        assertEquals(1, statementsFor(() -> expenseRollupRepository.findMonthlySummary(userId, 2024)));
+        assertEquals(0, statementsFor(() -> expenseRollupRepository.findMonthlySummary(userId, 2024)));
+        // The service answers from the same cached rollup query
+        assertEquals(0, statementsFor(() -> expenseService.getExpenseSummaryByCategory(userId, 5, 2024)));
+
+        expenseService.addExpense(new Expense(null, "Dinner", 3000, DATE.plusDays(1), "Food", null), userId);
+
+        assertEquals(1, statementsFor(this::categorySummary));
+        assertEquals(4250L, categorySummary().get(0).getTotalCents());
+        assertEquals(1, statementsFor(() -> expenseRollupRepository.findMonthlySummary(userId, 2024)));
+    }
+
+    @Test
+    void jdbcWritesInvalidateCachedSummariesThroughTheRollup() {
+        expenseService.addExpense(new Expense(null, "Lunch", 1250, DATE, "Food", null), userId);
+        assertEquals(1250L, categorySummary().get(0).getTotalCents());
+
+        // How write-behind stores rows: a plain JDBC insert, then the rollup update in the same transaction
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Long id = jdbcTemplate.queryForObject("SELECT MAX(id) + 1 FROM expenses", Long.class);
+            jdbcTemplate.update("INSERT INTO expenses (id, user_id, description, amount_cents, date, category) VALUES (?, ?, 'Snack', 500, ?, 'Food')",
+                    id, userId, DATE);
+            expenseRollupService.addAll(userId, List.of(new Expense(id, "Snack", 500, DATE, "Food", null)));
+        });
+
+        assertEquals(1, statementsFor(this::categorySummary));
+        assertEquals(1750L, categorySummary().get(0).getTotalCents());
+    }
+
+    private List<ExpenseSummaryDTO> categorySummary() {
+        return expenseRollupRepository.findCategorySummary(userId, 2024, 5);
+    }
+
+    private long statementsFor(Supplier<?> read) {
+        statistics.clear();
+        read.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -2,8 +2,11 @@ package com.expensetracker.controller;
 
 import com.expensetracker.model.Role;
 import com.expensetracker.model.User;
+import com.expensetracker.repository.UserRepository;
 import com.expensetracker.service.ExpenseService;
 import com.expensetracker.service.UserService;
+import com.expensetracker.config.AuthenticatedUser;
+import com.expensetracker.config.JwtPrincipal;
 import com.expensetracker.config.JwtUtil;
 import com.expensetracker.service.CustomUserDetailsService;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,12 +16,14 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyString;
@@ -26,6 +31,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+// Same mocks as AuthControllerTest and ExpenseControllerTest, so the three share one context
 @SpringBootTest
 @AutoConfigureMockMvc
 public class AdminControllerTest {
@@ -45,10 +51,16 @@ public class AdminControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    @MockBean
+    private UserRepository userRepository;
+
     private User adminUser;
     private User regularUser;
-    private UserDetails adminUserDetails;
-    private UserDetails regularUserDetails;
+    private AuthenticatedUser adminUserDetails;
+    private AuthenticatedUser regularUserDetails;
     private String adminToken;
     private String userToken;
 
@@ -64,22 +76,22 @@ public class AdminControllerTest {
         regularUser.setUsername("user");
         regularUser.setRole(Role.USER);
 
-        adminUserDetails = new org.springframework.security.core.userdetails.User(
+        adminUserDetails = new AuthenticatedUser(adminUser.getId(),
                 adminUser.getUsername(), "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")));
 
-        regularUserDetails = new org.springframework.security.core.userdetails.User(
+        regularUserDetails = new AuthenticatedUser(regularUser.getId(),
                 regularUser.getUsername(), "password", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
 
         adminToken = "mockAdminToken";
         userToken = "mockUserToken";
 
-        when(jwtUtil.extractUsername(adminToken)).thenReturn(adminUser.getUsername());
-        when(jwtUtil.validateToken(adminToken, adminUserDetails)).thenReturn(true);
+        when(jwtUtil.verify(adminToken)).thenReturn(Optional.of(new JwtPrincipal(adminUser.getId(), adminUser.getUsername(), List.of("ROLE_ADMIN"), Instant.now().plusSeconds(3600))));
         when(customUserDetailsService.loadUserByUsername(adminUser.getUsername())).thenReturn(adminUserDetails);
+        when(customUserDetailsService.loadAuthenticatedUser(adminUser.getUsername())).thenReturn(adminUserDetails);
 
-        when(jwtUtil.extractUsername(userToken)).thenReturn(regularUser.getUsername());
-        when(jwtUtil.validateToken(userToken, regularUserDetails)).thenReturn(true);
+        when(jwtUtil.verify(userToken)).thenReturn(Optional.of(new JwtPrincipal(regularUser.getId(), regularUser.getUsername(), List.of("ROLE_USER"), Instant.now().plusSeconds(3600))));
         when(customUserDetailsService.loadUserByUsername(regularUser.getUsername())).thenReturn(regularUserDetails);
+        when(customUserDetailsService.loadAuthenticatedUser(regularUser.getUsername())).thenReturn(regularUserDetails);
 
         when(userService.getAllUsers()).thenReturn(Arrays.asList(adminUser, regularUser));
         when(userService.findById(adminUser.getId())).thenReturn(Optional.of(adminUser));
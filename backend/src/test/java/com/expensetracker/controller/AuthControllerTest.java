@@ -5,6 +5,7 @@ import com.expensetracker.model.Role;
 import com.expensetracker.payload.AuthRequest;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.service.CustomUserDetailsService;
+import com.expensetracker.service.ExpenseService;
 import com.expensetracker.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -29,6 +30,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+// Same mocks as AdminControllerTest and ExpenseControllerTest, so the three share one context
 @SpringBootTest
 @AutoConfigureMockMvc
 public class AuthControllerTest {
@@ -51,6 +53,9 @@ public class AuthControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private ExpenseService expenseService;
+
     @Test
     void testAuthenticateUserLoginSuccess() throws Exception {
         AuthRequest authRequest = new AuthRequest();
@@ -0,0 +1,65 @@
+package com.expensetracker.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.auth.throttle.per-address.burst=4",
+        "app.auth.throttle.per-address.per-minute=1",
+        "app.auth.throttle.per-username.burst=2",
+        "app.auth.throttle.per-username.per-minute=1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class AuthThrottlingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static MockHttpServletRequestBuilder authRequest(String path, String address, String body) {
+        return post("/api/auth/" + path)
+                .with(request -> {
+                    request.setRemoteAddr(address);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private static String credentials(String username, String password) {
+        return "{\"username\":\"" + username + "\",\"email\":\"" + username + "@example.com\",\"password\":\"" + password + "\"}";
+    }
+
+    @Test
+    void refusesAUsernameAfterRepeatedFailuresEvenWithTheRightPassword() throws Exception {
+        mockMvc.perform(authRequest("register", "10.0.0.1", credentials("throttled", "right-pass"))).andExpect(status().isOk());
+        mockMvc.perform(authRequest("login", "10.0.0.1", credentials("throttled", "wrong"))).andExpect(status().isUnauthorized());
+        mockMvc.perform(authRequest("login", "10.0.0.2", credentials("Throttled", "wrong"))).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(authRequest("login", "10.0.0.3", credentials("throttled", "right-pass")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    void refusesAnAddressOnceItsBudgetIsSpent() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(authRequest("login", "10.0.1.1", credentials("nobody" + i, "wrong"))).andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(authRequest("login", "10.0.1.1", credentials("nobody9", "wrong")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        mockMvc.perform(authRequest("register", "10.0.1.1", credentials("fresh", "secret-pass"))).andExpect(status().isTooManyRequests());
+        mockMvc.perform(authRequest("login", "10.0.1.2", credentials("nobody9", "wrong"))).andExpect(status().isUnauthorized());
+    }
+}
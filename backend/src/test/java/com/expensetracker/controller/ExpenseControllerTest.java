@@ -1,36 +1,61 @@
 package com.expensetracker.controller;
 
+import com.expensetracker.config.AuthenticatedUser;
+import com.expensetracker.config.JwtPrincipal;
 import com.expensetracker.config.JwtUtil;
+import com.expensetracker.exception.ResourceNotFoundException;
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.Role;
+import com.expensetracker.payload.ExpenseBulkRequest;
+import com.expensetracker.payload.ExpenseFilter;
+import com.expensetracker.payload.ExpenseFilterPage;
+import com.expensetracker.payload.ExpenseResponse;
 import com.expensetracker.repository.UserRepository;
 import com.expensetracker.service.CustomUserDetailsService;
 import com.expensetracker.service.ExpenseService;
+import com.expensetracker.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.security.core.userdetails.User;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
+import java.time.Instant;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+// Same mocks as AdminControllerTest and AuthControllerTest, so the three share one context
 @SpringBootTest
 @AutoConfigureMockMvc
 public class ExpenseControllerTest {
@@ -50,6 +75,12 @@ public class ExpenseControllerTest {
     @MockBean
     private CustomUserDetailsService customUserDetailsService;
 
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    @MockBean
+    private UserService userService;
+
     private ObjectMapper objectMapper;
     private Expense expense;
     private String token;
@@ -62,7 +93,7 @@ public class ExpenseControllerTest {
         expense = new Expense();
         expense.setId(1L);
         expense.setDescription("Test Expense");
-        expense.setAmount(100.0);
+        expense.setAmount(new BigDecimal("100.00"));
         expense.setDate(LocalDate.now());
 
         com.expensetracker.model.User user = new com.expensetracker.model.User();
@@ -70,18 +101,18 @@ public class ExpenseControllerTest {
         user.setPassword("password");
         user.setRole(Role.USER);
 
-        UserDetails userDetails = new User("testuser", "password", new ArrayList<>());
+        AuthenticatedUser userDetails = new AuthenticatedUser(1L, "testuser", "password", new ArrayList<>());
         token = "mocked_jwt_token";
         when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(customUserDetailsService.loadUserByUsername("testuser")).thenReturn(userDetails);
+        when(customUserDetailsService.loadAuthenticatedUser("testuser")).thenReturn(userDetails);
         when(jwtUtil.generateToken(userDetails)).thenReturn(token);
-        when(jwtUtil.validateToken(token, userDetails)).thenReturn(true);
-        when(jwtUtil.extractUsername(token)).thenReturn("testuser");
+        when(jwtUtil.verify(token)).thenReturn(Optional.of(new JwtPrincipal(1L, "testuser", List.of(), Instant.now().plusSeconds(3600))));
     }
 
     @Test
     void testAddExpense() throws Exception {
-        when(expenseService.addExpense(any(Expense.class), any(String.class))).thenReturn(expense);
+        when(expenseService.addExpense(any(Expense.class), any(Long.class))).thenReturn(expense);
 
         mockMvc.perform(post("/api/expenses")
                         .header("Authorization", "Bearer " + token)
@@ -93,7 +124,7 @@ public class ExpenseControllerTest {
 
     @Test
     void testGetAllExpenses() throws Exception {
-        when(expenseService.getAllExpenses(any(String.class))).thenReturn(Collections.singletonList(expense));
+        when(expenseService.getAllExpenses(any(Long.class))).thenReturn(Collections.singletonList(ExpenseResponse.of(expense)));
 
         mockMvc.perform(get("/api/expenses")
                         .header("Authorization", "Bearer " + token))
@@ -101,9 +132,88 @@ public class ExpenseControllerTest {
                 .andExpect(jsonPath("$[0].description").value("Test Expense"));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamAllExpenses() throws Exception {
+        doAnswer(invocation -> {
+            ((Consumer<ExpenseResponse>) invocation.getArgument(1)).accept(ExpenseResponse.of(expense));
+            return null;
+        }).when(expenseService).streamExpenses(eq(1L), any());
+
+        MvcResult result = mockMvc.perform(get("/api/expenses?stream=true")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("Test Expense"));
+    }
+
+    @Test
+    void testGetExpensePageRejectsMalformedCursor() throws Exception {
+        when(expenseService.getExpensePage(eq(1L), eq("bogus"), any(Integer.class)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: bogus"));
+
+        mockMvc.perform(get("/api/expenses?cursor=bogus")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetAllExpensesBindsFilters() throws Exception {
+        ArgumentCaptor<ExpenseFilter> filter = ArgumentCaptor.forClass(ExpenseFilter.class);
+        when(expenseService.getFilteredExpenses(eq(1L), filter.capture(), eq(1), eq(10)))
+                .thenReturn(new ExpenseFilterPage(List.of(ExpenseResponse.of(expense)), 1, 10, 11, 2));
+
+        mockMvc.perform(get("/api/expenses")
+                        .param("category", "Food", "Travel")
+                        .param("from", "2024-01-01")
+                        .param("minAmount", "5.50")
+                        .param("prefix", "Gro")
+                        .param("sort", "amount")
+                        .param("page", "1")
+                        .param("size", "10")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Test Expense"))
+                .andExpect(jsonPath("$.totalElements").value(11));
+
+        assertEquals(List.of("Food", "Travel"), filter.getValue().category());
+        assertEquals(LocalDate.of(2024, 1, 1), filter.getValue().from());
+        assertEquals(new BigDecimal("5.50"), filter.getValue().minAmount());
+        assertEquals("Gro", filter.getValue().prefix());
+    }
+
+    @Test
+    void testGetAllExpensesSendsETagAndAnswers304WhenUnchanged() throws Exception {
+        when(expenseService.getDataVersion(1L)).thenReturn(7L);
+        when(expenseService.getAllExpenses(any(Long.class))).thenReturn(Collections.singletonList(ExpenseResponse.of(expense)));
+
+        mockMvc.perform(get("/api/expenses")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-7\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+
+        mockMvc.perform(get("/api/expenses")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", "\"1-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(expenseService, times(1)).getAllExpenses(1L);
+
+        when(expenseService.getDataVersion(1L)).thenReturn(8L);
+        mockMvc.perform(get("/api/expenses/summary/monthly/2024")
+                        .header("Authorization", "Bearer " + token)
+                        .header("If-None-Match", "\"1-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-8\""));
+    }
+
     @Test
     void testGetExpenseById() throws Exception {
-        when(expenseService.getExpenseById(any(Long.class), any(String.class))).thenReturn(expense);
+        when(expenseService.getExpenseById(any(Long.class), any(Long.class))).thenReturn(ExpenseResponse.of(expense));
 
         mockMvc.perform(get("/api/expenses/1")
                         .header("Authorization", "Bearer " + token))
@@ -113,8 +223,7 @@ public class ExpenseControllerTest {
 
     @Test
     void testUpdateExpense() throws Exception {
-        when(expenseService.findById(1L)).thenReturn(Optional.of(expense));
-        when(expenseService.save(any(Expense.class))).thenReturn(expense);
+        when(expenseService.updateExpense(any(Long.class), any(Expense.class), any(Long.class))).thenReturn(expense);
 
         mockMvc.perform(put("/api/expenses/1")
                         .header("Authorization", "Bearer " + token)
@@ -126,13 +235,117 @@ public class ExpenseControllerTest {
 
     @Test
     void testDeleteExpense() throws Exception {
-        doNothing().when(expenseService).deleteExpense(any(Long.class), any(String.class));
+        doNothing().when(expenseService).deleteExpense(any(Long.class), any(Long.class));
 
         mockMvc.perform(delete("/api/expenses/1")
                         .header("Authorization", "Bearer " + token))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    void testMissingExpenseIsNotFound() throws Exception {
+        when(expenseService.getExpenseById(eq(99L), any(Long.class))).thenThrow(new ResourceNotFoundException("Expense not found"));
+        doThrow(new ResourceNotFoundException("Expense not found")).when(expenseService).deleteExpense(eq(99L), any(Long.class));
+
+        mockMvc.perform(get("/api/expenses/99")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/api/expenses/99")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testBulkEndpointsBindSelectionAndReturnCounts() throws Exception {
+        ArgumentCaptor<ExpenseBulkRequest> request = ArgumentCaptor.forClass(ExpenseBulkRequest.class);
+        when(expenseService.bulkUpdateCategory(eq(1L), request.capture())).thenReturn(4);
+        when(expenseService.bulkDelete(eq(1L), any(ExpenseBulkRequest.class))).thenReturn(2);
+
+        mockMvc.perform(patch("/api/expenses/bulk")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"category\":[\"Food\"],\"from\":\"2024-06-01\",\"to\":\"2024-06-30\",\"newCategory\":\"Groceries\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(4));
+        assertEquals(new ExpenseBulkRequest(null, List.of("Food"), LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30), "Groceries"),
+                request.getValue());
+
+        mockMvc.perform(delete("/api/expenses/bulk")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[3,5]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(2));
+        verify(expenseService, times(0)).deleteExpense(any(Long.class), any(Long.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportExpensesAsCsv() throws Exception {
+        expense.setDescription("Lunch, with \"team\"");
+        expense.setCategory("Food");
+        doAnswer(invocation -> {
+            ((Consumer<ExpenseResponse>) invocation.getArgument(3)).accept(ExpenseResponse.of(expense));
+            return null;
+        }).when(expenseService).exportExpenses(eq(1L), eq(LocalDate.of(2024, 1, 1)), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/expenses/export?format=csv&from=2024-01-01")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses.csv\""))
+                .andExpect(content().string("id,date,description,category,amount\r\n"
+                        + "1," + expense.getDate() + ",\"Lunch, with \"\"team\"\"\",Food,100.00\r\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testExportExpensesAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ExpenseResponse> consumer = invocation.getArgument(3);
+            consumer.accept(ExpenseResponse.of(expense));
+            consumer.accept(ExpenseResponse.of(expense));
+            return null;
+        }).when(expenseService).exportExpenses(eq(1L), isNull(), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/expenses/export?format=ndjson")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(body.endsWith("\n"));
+        assertEquals("Test Expense", objectMapper.readTree(lines[1]).get("description").asText());
+    }
+
+    @Test
+    void testExportExpensesRejectsBadRequests() throws Exception {
+        mockMvc.perform(get("/api/expenses/export?format=xml")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/expenses/export?from=2024-02-01&to=2024-01-01")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetExpenseSummaryRejectsMonthOutOfRange() throws Exception {
+        when(expenseService.getExpenseSummaryByCategory(1L, 13, 2024))
+                .thenThrow(new IllegalArgumentException("month must be between 1 and 12"));
+
+        mockMvc.perform(get("/api/expenses/summary/2024/13")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetAllExpensesUnauthenticated() throws Exception {
         mockMvc.perform(get("/api/expenses"))
@@ -0,0 +1,293 @@
+package com.expensetracker.loadtest;
+
+import com.expensetracker.ExpenseTrackerApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: starts the application on in-memory H2, seeds users and expenses
+ * over HTTP, then sends a weighted mix of requests at a fixed rate and reports latency
+ * percentiles and throughput per route.
+ * <p>
+ * Latency is measured from each request's scheduled send time, so a stalled server shows up
+ * as latency instead of silently lowering the offered rate. Run with {@code mvn -Ploadtest test}
+ * and tune with -Dloadtest.users, .expenses (per user), .rate (requests/s), .duration and
+ * .warmup (seconds), .maxInFlight. Results also go to -Dloadtest.resultFile as JSON.
+ */
+public final class LoadTestHarness {
+
+    enum Route {
+        LOGIN("POST /api/auth/login", 5),
+        LIST("GET /api/expenses", 35),
+        CREATE("POST /api/expenses", 20),
+        UPDATE("PUT /api/expenses/{id}", 20),
+        MONTHLY_SUMMARY("GET /api/expenses/summary/monthly/{year}", 10),
+        CATEGORY_SUMMARY("GET /api/expenses/summary/{year}/{month}", 10);
+
+        final String label;
+        final int weight;
+
+        Route(String label, int weight) {
+            this.label = label;
+            this.weight = weight;
+        }
+    }
+
+    private record SeededUser(String username, String token, List<Long> expenseIds) {
+    }
+
+    private static final class RouteStats {
+        // Microseconds, up to one minute, three significant digits
+        final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    private static final String PASSWORD = "loadtest-pass";
+    private static final int SEED_YEAR = 2024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final int users;
+    private final int expensesPerUser;
+    private final int rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int maxInFlight;
+
+    private HttpClient client;
+    private String baseUrl;
+
+    private LoadTestHarness() {
+        users = Integer.getInteger("loadtest.users", 20);
+        expensesPerUser = Integer.getInteger("loadtest.expenses", 500);
+        rate = Integer.getInteger("loadtest.rate", 200);
+        durationSeconds = Integer.getInteger("loadtest.duration", 30);
+        warmupSeconds = Integer.getInteger("loadtest.warmup", 10);
+        maxInFlight = Integer.getInteger("loadtest.maxInFlight", 2000);
+        for (Route route : Route.values()) {
+            stats.put(route, new RouteStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestHarness().run();
+    }
+
+    private void run() throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ExpenseTrackerApplication.class)
+                .profiles("h2")
+                // Every request comes from one address, which the login throttle would otherwise cut off
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN", "app.auth.throttle.enabled=false")
+                .run();
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api";
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(clientExecutor).build();
+
+            System.out.printf("Seeding %d users x %d expenses%n", users, expensesPerUser);
+            List<SeededUser> seeded = seed();
+
+            System.out.printf("Driving %d req/s for %ds (+%ds warmup)%n", rate, durationSeconds, warmupSeconds);
+            drive(seeded);
+            report();
+        } finally {
+            context.close();
+            clientExecutor.shutdownNow();
+        }
+    }
+
+    private List<SeededUser> seed() throws Exception {
+        List<SeededUser> seeded = new ArrayList<>(users);
+        for (int u = 0; u < users; u++) {
+            String username = "loaduser" + u;
+            send(json(baseUrl + "/auth/register", null)
+                    .POST(HttpRequest.BodyPublishers.ofString(credentials(username, username + "@example.com"))).build());
+            String token = login(username);
+
+            StringBuilder rows = new StringBuilder();
+            for (int i = 0; i < expensesPerUser; i++) {
+                rows.append(objectMapper.writeValueAsString(randomExpense())).append('\n');
+            }
+            JsonNode result = objectMapper.readTree(send(HttpRequest.newBuilder(URI.create(baseUrl + "/expenses/batch"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(rows.toString())).build()));
+            List<Long> ids = new ArrayList<>(expensesPerUser);
+            for (JsonNode row : result.get("rows")) {
+                if (row.hasNonNull("id")) {
+                    ids.add(row.get("id").asLong());
+                }
+            }
+            seeded.add(new SeededUser(username, token, ids));
+        }
+        return seeded;
+    }
+
+    private String login(String username) throws Exception {
+        String body = send(json(baseUrl + "/auth/login", null)
+                .POST(HttpRequest.BodyPublishers.ofString(credentials(username, null))).build());
+        return objectMapper.readTree(body).get("token").asText();
+    }
+
+    private void drive(List<SeededUser> seeded) throws Exception {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = (long) rate * (warmupSeconds + durationSeconds);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Route route = pickRoute();
+            HttpRequest request = buildRequest(route, seeded.get(ThreadLocalRandom.current().nextInt(seeded.size())));
+            boolean measured = intended >= measureFrom;
+
+            inFlight.acquire();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                inFlight.release();
+                if (!measured) {
+                    return;
+                }
+                RouteStats routeStats = stats.get(route);
+                routeStats.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended),
+                        routeStats.latency.getHighestTrackableValue()));
+                if (error != null || response.statusCode() >= 400) {
+                    routeStats.errors.incrementAndGet();
+                }
+            });
+        }
+        inFlight.acquire(maxInFlight);
+    }
+
+    private static Route pickRoute() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Route route : Route.values()) {
+            roll -= route.weight;
+            if (roll < 0) {
+                return route;
+            }
+        }
+        return Route.LIST;
+    }
+
+    private HttpRequest buildRequest(Route route, SeededUser user) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String expenses = baseUrl + "/expenses";
+        switch (route) {
+            case LOGIN:
+                return json(baseUrl + "/auth/login", null)
+                        .POST(HttpRequest.BodyPublishers.ofString(credentials(user.username(), null))).build();
+            case LIST:
+                return json(expenses + "?limit=50", user.token()).GET().build();
+            case CREATE:
+                return json(expenses, user.token())
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(randomExpense()))).build();
+            case UPDATE:
+                Long id = user.expenseIds().get(random.nextInt(user.expenseIds().size()));
+                return json(expenses + "/" + id, user.token())
+                        .PUT(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(randomExpense()))).build();
+            case MONTHLY_SUMMARY:
+                return json(expenses + "/summary/monthly/" + SEED_YEAR, user.token()).GET().build();
+            default:
+                return json(expenses + "/summary/" + SEED_YEAR + "/" + (1 + random.nextInt(12)), user.token()).GET().build();
+        }
+    }
+
+    private static HttpRequest.Builder json(String url, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).header("Content-Type", "application/json");
+        return (token == null) ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private String credentials(String username, String email) throws Exception {
+        ObjectNode node = objectMapper.createObjectNode().put("username", username).put("password", PASSWORD);
+        if (email != null) {
+            node.put("email", email);
+        }
+        return objectMapper.writeValueAsString(node);
+    }
+
+    private ObjectNode randomExpense() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return objectMapper.createObjectNode()
+                .put("description", "Load test expense")
+                .put("amount", random.nextInt(1, 50_000) / 100.0)
+                .put("date", LocalDate.of(SEED_YEAR, 1, 1).plusDays(random.nextInt(366)).toString())
+                .put("category", "Category " + random.nextInt(8));
+    }
+
+    private String send(HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private void report() throws Exception {
+        ArrayNode routes = objectMapper.createArrayNode();
+        System.out.printf("%n%-42s %8s %7s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (Route route : Route.values()) {
+            RouteStats routeStats = stats.get(route);
+            Histogram latency = routeStats.latency;
+            long count = latency.getTotalCount();
+            double throughput = (double) count / durationSeconds;
+            System.out.printf("%-42s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", route.label, count, routeStats.errors.get(),
+                    throughput, millis(latency, 50), millis(latency, 95), millis(latency, 99), latency.getMaxValue() / 1000.0);
+            routes.addObject()
+                    .put("route", route.label)
+                    .put("requests", count)
+                    .put("errors", routeStats.errors.get())
+                    .put("throughput", throughput)
+                    .put("p50Ms", millis(latency, 50))
+                    .put("p95Ms", millis(latency, 95))
+                    .put("p99Ms", millis(latency, 99))
+                    .put("maxMs", latency.getMaxValue() / 1000.0);
+        }
+
+        String resultFile = System.getProperty("loadtest.resultFile");
+        if (resultFile != null) {
+            ObjectNode result = objectMapper.createObjectNode()
+                    .put("users", users)
+                    .put("expensesPerUser", expensesPerUser)
+                    .put("targetRate", rate)
+                    .put("durationSeconds", durationSeconds);
+            result.set("routes", routes);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(resultFile), result);
+            System.out.println("Results written to " + resultFile);
+        }
+    }
+
+    private static double millis(Histogram latency, double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
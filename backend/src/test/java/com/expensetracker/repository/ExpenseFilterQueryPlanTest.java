@@ -0,0 +1,176 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every combination of the listing filters through {@link ExpenseSpecifications}, then EXPLAINs the
+ * SQL Hibernate actually generated (values inlined) and checks that the access path seeks on a filtered
+ * column, not just on user_id, which would read all of the user's rows.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.criteria.value_handling_mode=INLINE",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.expensetracker.repository.ExpenseFilterQueryPlanTest$RecordingInspector"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ExpenseFilterQueryPlanTest {
+
+    // H2 prints the chosen index and the conditions it seeks on as a comment: /* public.idx_x: cond AND cond */
+    private static final Pattern INDEX_ACCESS = Pattern.compile("/\\*\\s*public\\.(\\w+):([^*]*)\\*/");
+
+    public static class RecordingInspector implements StatementInspector {
+        static final List<String> statements = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    private record Filter(String name, Specification<Expense> specification, Predicate<Expense> matches) {
+    }
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private final List<Expense> fixture = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = persistUser("filteruser");
+        User other = persistUser("filterother");
+        String[] categories = {"Food", "Rent", "Travel", "Utilities"};
+        String[] descriptions = {"Groceries", "Grocer run", "Train", "Taxi", "Power bill", "Water"};
+        for (int i = 0; i < 48; i++) {
+            Expense expense = new Expense(null, descriptions[i % descriptions.length], 500L * (i + 1),
+                    LocalDate.of(2024, 1, 1).plusDays(i * 7L), categories[i % categories.length], user);
+            fixture.add(entityManager.persist(expense));
+            entityManager.persist(new Expense(null, "Groceries", 1000, LocalDate.of(2024, 3, 1), "Food", other));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private User persistUser(String username) {
+        User persisted = new User();
+        persisted.setUsername(username);
+        persisted.setEmail(username + "@example.com");
+        persisted.setPassword("password");
+        persisted.setRole(Role.USER);
+        return entityManager.persist(persisted);
+    }
+
+    private static List<Filter> filters() {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate before = LocalDate.of(2024, 6, 1);
+        return List.of(
+                new Filter("category", ExpenseSpecifications.categoryIn(Set.of("Food")),
+                        e -> e.getCategory().equals("Food")),
+                new Filter("date", ExpenseSpecifications.dateOnOrAfter(from).and(ExpenseSpecifications.dateBefore(before)),
+                        e -> !e.getDate().isBefore(from) && e.getDate().isBefore(before)),
+                new Filter("amount", ExpenseSpecifications.amountAtLeast(2000).and(ExpenseSpecifications.amountAtMost(9000)),
+                        e -> e.getAmountCents() >= 2000 && e.getAmountCents() <= 9000),
+                new Filter("prefix", ExpenseSpecifications.descriptionStartsWith("Groc"),
+                        e -> e.getDescription().startsWith("Groc")));
+    }
+
+    @Test
+    void everyFilterCombinationSeeksAnIndexBeyondTheUser() {
+        List<Filter> filters = filters();
+        for (int mask = 1; mask < (1 << filters.size()); mask++) {
+            List<String> names = new ArrayList<>();
+            Specification<Expense> specification = ExpenseSpecifications.belongsTo(user.getId());
+            Predicate<Expense> expected = e -> true;
+            for (int i = 0; i < filters.size(); i++) {
+                if ((mask & (1 << i)) != 0) {
+                    names.add(filters.get(i).name());
+                    specification = specification.and(filters.get(i).specification());
+                    expected = expected.and(filters.get(i).matches());
+                }
+            }
+
+            for (Sort sort : List.of(Sort.by(Sort.Direction.DESC, "date", "id"), Sort.by(Sort.Direction.ASC, "amountCents", "id"))) {
+                RecordingInspector.statements.clear();
+                List<Expense> rows = expenseRepository.findAll(specification, sort);
+                assertEquals(fixture.stream().filter(expected).count(), rows.size(), names + " " + sort);
+                assertSeeksFilteredColumn(names + " " + sort, explain(RecordingInspector.statements));
+            }
+
+            RecordingInspector.statements.clear();
+            expenseRepository.count(specification);
+            assertSeeksFilteredColumn(names + " count", explain(RecordingInspector.statements));
+        }
+    }
+
+    @Test
+    void categorySetPicksTheCategoryIndex() {
+        RecordingInspector.statements.clear();
+        List<Expense> rows = expenseRepository.findAll(ExpenseSpecifications.belongsTo(user.getId())
+                .and(ExpenseSpecifications.categoryIn(Set.of("Food", "Travel"))), Sort.by("date"));
+
+        assertEquals(24, rows.size());
+        // H2 seeks IN lists only on an index's leading column, so its plan shows user_id alone;
+        // MySQL range-scans one (user_id, category) prefix per listed category
+        Matcher access = INDEX_ACCESS.matcher(explain(RecordingInspector.statements));
+        assertTrue(access.find());
+        assertEquals("idx_expenses_user_category_date", access.group(1));
+    }
+
+    @Test
+    void prefixWildcardsAreMatchedLiterally() {
+        entityManager.persist(new Expense(null, "50% off", 100, LocalDate.of(2024, 2, 2), "Food", user));
+        entityManager.persist(new Expense(null, "500 tiles", 100, LocalDate.of(2024, 2, 2), "Food", user));
+        entityManager.flush();
+
+        List<Expense> rows = expenseRepository.findAll(ExpenseSpecifications.belongsTo(user.getId())
+                .and(ExpenseSpecifications.descriptionStartsWith("50%")));
+
+        assertEquals(List.of("50% off"), rows.stream().map(Expense::getDescription).toList());
+    }
+
+    private String explain(List<String> statements) {
+        String sql = statements.stream().filter(s -> s.startsWith("select")).reduce((first, last) -> last).orElseThrow();
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static void assertSeeksFilteredColumn(String combination, String plan) {
+        Matcher access = INDEX_ACCESS.matcher(plan);
+        assertTrue(access.find(), combination + "\n" + plan);
+        String conditions = access.group(2);
+        assertTrue(conditions.contains("user_id ="), combination + "\n" + plan);
+        assertTrue(conditions.contains("category") || conditions.contains("date") || conditions.contains("amount_cents")
+                || conditions.contains("description"), combination + "\n" + plan);
+        assertFalse(plan.contains("tableScan"), combination + "\n" + plan);
+    }
+}
@@ -0,0 +1,122 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.DailyExpenseTotal;
+import com.expensetracker.payload.ExpenseResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EXPLAINs the SQL Hibernate generates for the repository's date-range reads (recorded by
+ * {@link ExpenseFilterQueryPlanTest.RecordingInspector}, run with the same bind values) and checks that
+ * they seek the date range within the user's rows rather than reading all of them.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.expensetracker.repository.ExpenseFilterQueryPlanTest$RecordingInspector"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class ExpenseRepositoryQueryPlanTest {
+
+    // H2 prints the chosen index and the conditions it seeks on as a comment: /* public.idx_x: cond AND cond */
+    private static final Pattern INDEX_ACCESS = Pattern.compile("/\\*\\s*public\\.(\\w+):([^*]*)\\*/");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("planuser");
+        user.setEmail("plan@example.com");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        entityManager.persist(user);
+
+        persistExpense(LocalDate.of(2024, 1, 31), "Food", 1000);
+        persistExpense(LocalDate.of(2024, 2, 1), "Food", 2000);
+        persistExpense(LocalDate.of(2024, 2, 29), "Rent", 50000);
+        persistExpense(LocalDate.of(2025, 1, 1), "Food", 9900);
+        entityManager.flush();
+    }
+
+    private void persistExpense(LocalDate date, String category, long amountCents) {
+        entityManager.persist(new Expense(null, category + " on " + date, amountCents, date, category, user));
+    }
+
+    private String explainLastSelect(Object... args) {
+        String sql = ExpenseFilterQueryPlanTest.RecordingInspector.statements.stream()
+                .filter(statement -> statement.startsWith("select")).reduce((first, last) -> last).orElseThrow();
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private static void assertDateRangeAccess(String plan) {
+        Matcher access = INDEX_ACCESS.matcher(plan);
+        assertTrue(access.find(), plan);
+        assertTrue(access.group(1).startsWith("idx_expenses_user_date"), plan);
+        assertTrue(access.group(2).contains("user_id ="), plan);
+        assertTrue(access.group(2).contains("date >="), plan);
+        assertTrue(access.group(2).contains("date <"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void dailyTotalsSeekTheDateRange() {
+        LocalDate from = LocalDate.of(2024, 2, 1);
+        LocalDate to = LocalDate.of(2024, 3, 1);
+        ExpenseFilterQueryPlanTest.RecordingInspector.statements.clear();
+
+        assertEquals(2, expenseRepository.findDailyTotals(user.getId(), from, to).size());
+        assertDateRangeAccess(explainLastSelect(user.getId(), from, to));
+    }
+
+    @Test
+    void exportStreamSeeksTheDateRange() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2025, 1, 1);
+        ExpenseFilterQueryPlanTest.RecordingInspector.statements.clear();
+
+        try (Stream<ExpenseResponse> rows = expenseRepository.streamByUserIdAndDateRange(user.getId(), from, to)) {
+            assertEquals(3, rows.count());
+        }
+        assertDateRangeAccess(explainLastSelect(user.getId(), from, to));
+    }
+
+    @Test
+    void dailyTotalsAreOrderedAndHalfOpen() {
+        persistExpense(LocalDate.of(2024, 2, 1), "Travel", 500);
+        entityManager.flush();
+
+        List<DailyExpenseTotal> days = expenseRepository.findDailyTotals(
+                user.getId(), LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29));
+
+        assertEquals(2, days.size());
+        assertEquals(LocalDate.of(2024, 1, 31), days.get(0).date());
+        assertEquals(2500L, days.get(1).totalCents());
+        assertEquals(2L, days.get(1).count());
+    }
+}
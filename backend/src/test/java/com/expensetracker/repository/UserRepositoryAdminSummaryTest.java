@@ -0,0 +1,87 @@
+package com.expensetracker.repository;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.AdminUserSummaryDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.JpaSort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class UserRepositoryAdminSummaryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User idle = persistUser("summary-idle");
+        User light = persistUser("summary-light");
+        User heavy = persistUser("summary-heavy");
+        persistExpense(light, 500, LocalDate.of(2024, 1, 5));
+        persistExpense(heavy, 20000, LocalDate.of(2024, 2, 1));
+        persistExpense(heavy, 15000, LocalDate.of(2024, 3, 9));
+        entityManager.flush();
+        entityManager.clear();
+        assertNotNull(idle.getId());
+    }
+
+    private User persistUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        return entityManager.persist(user);
+    }
+
+    private void persistExpense(User user, long amountCents, LocalDate date) {
+        entityManager.persist(new Expense(null, "Expense", amountCents, date, "Misc", user));
+    }
+
+    @Test
+    void aggregatesPerUserIncludingUsersWithoutExpenses() {
+        Page<AdminUserSummaryDTO> page = userRepository.findAdminSummaries("%summary-%",
+                PageRequest.of(0, 10, JpaSort.unsafe(Sort.Direction.DESC, "COALESCE(SUM(e.amountCents), 0)")));
+
+        assertEquals(3, page.getTotalElements());
+        List<AdminUserSummaryDTO> rows = page.getContent();
+        assertEquals("summary-heavy", rows.get(0).username());
+        assertEquals(2, rows.get(0).expenseCount());
+        assertEquals(35000L, rows.get(0).totalCents());
+        assertEquals(LocalDate.of(2024, 3, 9), rows.get(0).lastExpenseDate());
+        AdminUserSummaryDTO idle = rows.get(2);
+        assertEquals("summary-idle", idle.username());
+        assertEquals(0, idle.expenseCount());
+        assertEquals(0L, idle.totalCents());
+        assertNull(idle.lastExpenseDate());
+    }
+
+    @Test
+    void pagesBySortedAggregate() {
+        Page<AdminUserSummaryDTO> second = userRepository.findAdminSummaries("%summary-%",
+                PageRequest.of(1, 2, JpaSort.unsafe(Sort.Direction.ASC, "MAX(e.date)").andUnsafe(Sort.Direction.ASC, "u.id")));
+
+        assertEquals(2, second.getTotalPages());
+        assertEquals(1, second.getContent().size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.expensetracker.service;
+
+import com.expensetracker.config.CacheConfig;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class CustomUserDetailsServiceTest {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+    private Cache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = cacheManager.getCache(CacheConfig.USER_DETAILS_CACHE);
+        cache.clear();
+        userRepository.deleteAll();
+
+        user = new User();
+        user.setUsername("cacheduser");
+        user.setEmail("cached@example.com");
+        user.setPassword("hash");
+        user.setRole(Role.USER);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void authenticatedLookupIsCachedWithoutPassword() {
+        UserDetails first = userDetailsService.loadAuthenticatedUser("cacheduser");
+        UserDetails second = userDetailsService.loadAuthenticatedUser("cacheduser");
+
+        assertSame(first, second);
+        assertEquals("", first.getPassword());
+        assertNotNull(cache.get("cacheduser"));
+    }
+
+    @Test
+    void credentialLookupBypassesCache() {
+        UserDetails details = userDetailsService.loadUserByUsername("cacheduser");
+
+        assertEquals("hash", details.getPassword());
+        assertNull(cache.get("cacheduser"));
+    }
+
+    @Test
+    void roleChangeEvictsCachedUser() {
+        userDetailsService.loadAuthenticatedUser("cacheduser");
+
+        userService.updateUserRole(user.getId(), Role.ADMIN);
+
+        assertNull(cache.get("cacheduser"));
+        assertTrue(userDetailsService.loadAuthenticatedUser("cacheduser").getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN")));
+    }
+
+    @Test
+    void deleteEvictsCachedUser() {
+        userDetailsService.loadAuthenticatedUser("cacheduser");
+
+        userService.deleteById(user.getId());
+
+        assertNull(cache.get("cacheduser"));
+    }
+
+    @Test
+    void renameEvictsBothUsernamesOnceCommitted() {
+        userDetailsService.loadAuthenticatedUser("cacheduser");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Renamed on the managed entity, as a request-scoped persistence context would
+            User managed = userRepository.findById(user.getId()).orElseThrow();
+            managed.setUsername("renameduser");
+            userService.save(managed);
+            userDetailsService.loadAuthenticatedUser("renameduser");
+
+            assertNotNull(cache.get("cacheduser"));
+        });
+
+        assertNull(cache.get("cacheduser"));
+        assertNull(cache.get("renameduser"));
+    }
+}
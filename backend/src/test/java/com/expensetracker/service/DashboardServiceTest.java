@@ -0,0 +1,59 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.DashboardDTO;
+import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import com.expensetracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the dashboard compares the committed data version before and after its reads
+@SpringBootTest
+@ActiveProfiles("h2")
+public class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void combinesProfileBreakdownAndFullYearSeries() {
+        User user = new User();
+        user.setUsername("dashboarduser");
+        user.setEmail("dashboard@example.com");
+        user.setPassword("hash");
+        user.setName("Dana");
+        user.setMonthlyIncome(3000.0);
+        user.setRole(Role.USER);
+        Long userId = userRepository.save(user).getId();
+
+        expenseService.addExpense(new Expense(null, "Groceries", 4550, LocalDate.of(2024, 3, 2), "Food", null), userId);
+        expenseService.addExpense(new Expense(null, "Rent", 120000, LocalDate.of(2024, 3, 1), "Housing", null), userId);
+        expenseService.addExpense(new Expense(null, "Taxi", 1800, LocalDate.of(2024, 7, 9), "Transport", null), userId);
+
+        DashboardDTO dashboard = dashboardService.getDashboard(userId, 2024, 3);
+
+        assertEquals("dashboarduser", dashboard.profile().username());
+        assertEquals(3000.0, dashboard.profile().monthlyIncome());
+        assertEquals(new BigDecimal("1245.50"), dashboard.monthTotal());
+        assertEquals(2, dashboard.categories().size());
+        assertEquals(12, dashboard.monthly().size());
+        assertEquals(124550L, dashboard.monthly().get(2).totalCents());
+        assertEquals(1800L, dashboard.monthly().get(6).totalCents());
+        assertEquals(0L, dashboard.monthly().stream().filter(m -> m.month() == 1).findFirst().map(MonthlyExpenseSummaryDTO::totalCents).orElseThrow());
+    }
+}
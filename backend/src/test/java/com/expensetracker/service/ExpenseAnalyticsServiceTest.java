@@ -0,0 +1,81 @@
+package com.expensetracker.service;
+
+import com.expensetracker.payload.DailyExpenseTotal;
+import com.expensetracker.payload.ExpenseAnalyticsDTO;
+import com.expensetracker.payload.ExpenseAnalyticsDTO.Granularity;
+import com.expensetracker.repository.ExpenseRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpenseAnalyticsServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private ExpenseColumnCache expenseColumnCache;
+
+    @InjectMocks
+    private ExpenseAnalyticsServiceImpl analyticsService;
+
+    @Test
+    void monthlyBucketsCompareWithPreviousYearAndRollFromOneQuery() {
+        when(expenseRepository.findDailyTotals(1L, LocalDate.of(2023, 3, 1), LocalDate.of(2024, 5, 1))).thenReturn(List.of(
+                new DailyExpenseTotal(LocalDate.of(2023, 3, 10), 500, 1),
+                new DailyExpenseTotal(LocalDate.of(2024, 2, 27), 1000, 1),
+                new DailyExpenseTotal(LocalDate.of(2024, 3, 1), 200, 1),
+                new DailyExpenseTotal(LocalDate.of(2024, 3, 31), 300, 2),
+                new DailyExpenseTotal(LocalDate.of(2024, 4, 15), 400, 1)));
+
+        ExpenseAnalyticsDTO result = analyticsService.getAnalytics(1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 4, 30), Granularity.MONTH, 7);
+
+        assertEquals(900L, result.totalCents());
+        assertEquals(2, result.buckets().size());
+        ExpenseAnalyticsDTO.Bucket march = result.buckets().get(0);
+        assertEquals(LocalDate.of(2024, 3, 31), march.end());
+        assertEquals(500L, march.totalCents());
+        assertEquals(3L, march.count());
+        assertEquals(500L, march.previousYearCents());
+        assertEquals(0L, result.buckets().get(1).previousYearCents());
+
+        assertEquals(61, result.rolling().size());
+        // The first window reaches back into February
+        assertEquals(1200L, result.rolling().get(0).sumCents());
+        assertEquals(200L, result.rolling().get(6).sumCents());
+        verify(expenseRepository, times(1)).findDailyTotals(anyLong(), any(), any());
+    }
+
+    @Test
+    void weeklyBucketsRunMondayToSundayAndAreClippedToTheRange() {
+        when(expenseRepository.findDailyTotals(eq(1L), any(), any())).thenReturn(Collections.emptyList());
+
+        ExpenseAnalyticsDTO result = analyticsService.getAnalytics(1L, LocalDate.of(2024, 3, 6), LocalDate.of(2024, 3, 20), Granularity.WEEK, null);
+
+        assertEquals(3, result.buckets().size());
+        assertEquals(LocalDate.of(2024, 3, 10), result.buckets().get(0).end());
+        assertEquals(LocalDate.of(2024, 3, 11), result.buckets().get(1).start());
+        assertEquals(LocalDate.of(2024, 3, 20), result.buckets().get(2).end());
+        assertTrue(result.rolling().isEmpty());
+    }
+
+    @Test
+    void rejectsOversizedWindow() {
+        assertThrows(IllegalArgumentException.class, () -> analyticsService.getAnalytics(1L,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), Granularity.QUARTER, 400));
+        verifyNoInteractions(expenseRepository);
+    }
+}
@@ -0,0 +1,100 @@
+package com.expensetracker.service;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.ExpenseBatchResultDTO;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "app.expenses.batch-size=2")
+@ActiveProfiles("h2")
+public class ExpenseBatchImportTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.findByUsername("batchuser").orElseGet(() -> TestUsers.create(userRepository, "batchuser"));
+    }
+
+    private static Expense expense(String description, long amountCents, LocalDate date) {
+        return new Expense(null, description, amountCents, date, "Import", null);
+    }
+
+    @Test
+    void storesValidRowsInChunksAndReportsEachRow() {
+        long before = expenseRepository.findByUserId(user.getId()).size();
+        List<Expense> rows = Arrays.asList(
+                expense("a", 100, LocalDate.of(2024, 4, 1)),
+                expense("b", -500, LocalDate.of(2024, 4, 2)),
+                expense("c", 200, LocalDate.of(2024, 4, 3)),
+                expense("d", 300, null),
+                expense("e", 400, LocalDate.of(2024, 5, 1)));
+
+        ExpenseBatchResultDTO result = expenseService.addExpenses(rows.iterator(), user.getId());
+
+        assertEquals(3, result.accepted());
+        assertEquals(2, result.rejected());
+        assertEquals(5, result.rows().size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, result.rows().get(i).index());
+        }
+        assertNotNull(result.rows().get(0).id());
+        assertEquals("Amount must be a non-negative number", result.rows().get(1).error());
+        assertEquals("Date is required", result.rows().get(3).error());
+        assertEquals(before + 3, expenseRepository.findByUserId(user.getId()).size());
+        assertTrue(expenseRollupService.verify().isConsistent());
+    }
+
+    @Test
+    void stopsAtMalformedRow() {
+        Iterator<Expense> rows = new Iterator<>() {
+            private int served;
+
+            @Override
+            public boolean hasNext() {
+                if (served == 1) {
+                    throw new IllegalStateException("Unexpected token");
+                }
+                return true;
+            }
+
+            @Override
+            public Expense next() {
+                served++;
+                return expense("ok", 100, LocalDate.of(2024, 6, 1));
+            }
+        };
+
+        ExpenseBatchResultDTO result = expenseService.addExpenses(rows, user.getId());
+
+        assertEquals(1, result.accepted());
+        assertEquals(1, result.rejected());
+        assertTrue(result.rows().get(1).error().startsWith("Malformed row"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.expensetracker.service;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseBulkRequest;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class ExpenseBulkChangeTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void recategorizesAndDeletesBySelectionWithoutLoadingRows() {
+        Long userId = TestUsers.create(userRepository, "bulkuser").getId();
+        Long otherId = TestUsers.create(userRepository, "bulkother").getId();
+        Expense coffee = add(userId, "Coffee", 300, LocalDate.of(2024, 6, 3), "Food");
+        add(userId, "Bagel", 450, LocalDate.of(2024, 6, 4), "Food");
+        add(userId, "Dinner", 2500, LocalDate.of(2024, 7, 1), "Food");
+        add(userId, "Bus", 250, LocalDate.of(2024, 6, 5), "Travel");
+        add(otherId, "Coffee", 300, LocalDate.of(2024, 6, 3), "Food");
+        long version = expenseService.getDataVersion(userId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        int recategorized = expenseService.bulkUpdateCategory(userId,
+                new ExpenseBulkRequest(null, List.of("Food"), LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 30), "Snacks"));
+
+        assertEquals(2, recategorized);
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(version + 1, expenseService.getDataVersion(userId));
+        assertEquals(Map.of("Snacks", 750L, "Travel", 250L), totals(userId, 6));
+        assertEquals(Map.of("Food", 2500L), totals(userId, 7));
+        assertEquals(Map.of("Food", 300L), totals(otherId, 6));
+
+        // ids and a filter combine; ids of other users' expenses never match
+        int deleted = expenseService.bulkDelete(userId, new ExpenseBulkRequest(List.of(coffee.getId()), List.of("Snacks"), null, null, null));
+        assertEquals(1, deleted);
+        assertEquals(List.of("Bagel", "Bus", "Dinner"),
+                expenseService.getAllExpenses(userId).stream().map(ExpenseResponse::description).sorted().toList());
+        assertEquals(Map.of("Snacks", 450L, "Travel", 250L), totals(userId, 6));
+        assertEquals(0, expenseService.bulkDelete(otherId, new ExpenseBulkRequest(List.of(coffee.getId()), null, null, null, null)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseService.bulkDelete(userId, new ExpenseBulkRequest(List.of(), null, null, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseService.bulkUpdateCategory(userId, new ExpenseBulkRequest(null, List.of("Travel"), null, null, " ")));
+        assertEquals(3, expenseService.getAllExpenses(userId).size());
+    }
+
+    private Map<String, Long> totals(Long userId, int month) {
+        return expenseService.getExpenseSummaryByCategory(userId, month, 2024).stream()
+                .collect(Collectors.toMap(ExpenseSummaryDTO::getCategory, ExpenseSummaryDTO::getTotalCents));
+    }
+
+    private Expense add(Long userId, String description, long cents, LocalDate date, String category) {
+        return expenseService.addExpense(new Expense(null, description, cents, date, category, null), userId);
+    }
+}
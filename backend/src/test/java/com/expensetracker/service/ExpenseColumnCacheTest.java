@@ -0,0 +1,121 @@
+package com.expensetracker.service;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.DailyExpenseTotal;
+import com.expensetracker.payload.ExpenseColumnRow;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: cache changes are applied after commit. Same context as ExpenseSearchIndexTest
+@SpringBootTest(properties = {
+        "app.expenses.column-cache.enabled=true",
+        "app.expenses.column-cache.max-bytes=4KB",
+        "app.expenses.search-index.max-bytes=8KB"
+})
+@ActiveProfiles("h2")
+public class ExpenseColumnCacheTest {
+
+    @Autowired
+    private ExpenseColumnCache cache;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void servesSummariesAndFollowsCommittedWrites() {
+        Long userId = TestUsers.create(userRepository, "columnuser").getId();
+        Expense lunch = expenseService.addExpense(new Expense(null, "Lunch", 1200, LocalDate.of(2024, 5, 3), "Food", null), userId);
+        expenseService.addExpense(new Expense(null, "Bus", 250, LocalDate.of(2024, 5, 3), "Transport", null), userId);
+        expenseService.addExpense(new Expense(null, "Cinema", 1500, LocalDate.of(2024, 6, 1), "Fun", null), userId);
+
+        List<DailyExpenseTotal> days = cache.dailyTotals(userId, LocalDate.of(2024, 5, 1), LocalDate.of(2024, 6, 1)).orElseThrow();
+        assertEquals(List.of(new DailyExpenseTotal(LocalDate.of(2024, 5, 3), 1450, 2)), days);
+
+        // Applied to the loaded columns after commit
+        expenseService.updateExpense(lunch.getId(), new Expense(null, "Lunch", 1800, LocalDate.of(2024, 5, 3), "Dining", null), userId);
+        expenseService.addExpense(new Expense(null, "Taxi", 900, LocalDate.of(2024, 5, 20), "Transport", null), userId);
+
+        List<ExpenseSummaryDTO> may = expenseService.getExpenseSummaryByCategory(userId, 5, 2024);
+        assertEquals(1800L, may.stream().filter(s -> "Dining".equals(s.getCategory())).findFirst().orElseThrow().getTotalCents());
+        assertEquals(1150L, may.stream().filter(s -> "Transport".equals(s.getCategory())).findFirst().orElseThrow().getTotalCents());
+        assertTrue(may.stream().noneMatch(s -> "Food".equals(s.getCategory())));
+
+        expenseService.deleteExpense(lunch.getId(), userId);
+        assertEquals(2650L, expenseService.getMonthlyExpenseSummary(userId, 2024).stream().mapToLong(m -> m.totalCents()).sum());
+    }
+
+    @Test
+    void aChangeCommittedAheadOfAnEarlierOneEvictsInsteadOfPatching() {
+        Long userId = TestUsers.create(userRepository, "orderuser").getId();
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        Expense coffee = expenseService.addExpense(new Expense(null, "Coffee", 300, day, "Food", null), userId);
+        assertEquals(300, cache.dailyTotals(userId, day, day.plusDays(1)).orElseThrow().get(0).totalCents());
+        assertTrue(cache.usedBytes() > 0);
+
+        // As if another transaction committed in between and its hook has not run yet
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userRepository.incrementDataVersion(userId);
+            userRepository.incrementDataVersion(userId);
+            cache.updated(userId, new Expense(coffee.getId(), "Coffee", 999, day, "Food", null));
+        });
+
+        assertEquals(0, cache.usedBytes());
+        assertEquals(300, cache.dailyTotals(userId, day, day.plusDays(1)).orElseThrow().get(0).totalCents());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedUsersToStayWithinBudget() {
+        for (int i = 0; i < 4; i++) {
+            Long userId = TestUsers.create(userRepository, "budgetuser" + i).getId();
+            expenseService.addExpense(new Expense(null, "Item", 100, LocalDate.of(2024, 1, 1), "Misc", null), userId);
+            assertTrue(cache.dailyTotals(userId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)).isPresent());
+            assertTrue(cache.usedBytes() <= 4096);
+        }
+    }
+
+    @Test
+    void columnsFindRowsByIdThroughGrowthAndRemoval() {
+        ExpenseColumnCache.UserColumns columns = new ExpenseColumnCache.UserColumns(0);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int step = 0; step < 5000; step++) {
+            long id = random.nextInt(400);
+            if (random.nextInt(3) == 0) {
+                columns.remove(id);
+                expected.remove(id);
+            } else {
+                long cents = random.nextInt(1000);
+                columns.put(new ExpenseColumnRow(id, LocalDate.of(2024, 1, 1), cents, "Category " + (id % 3)));
+                expected.put(id, cents);
+            }
+        }
+
+        assertEquals(expected.size(), columns.size());
+        long total = expected.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(total, columns.categoryTotals(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2))
+                .stream().mapToLong(ExpenseSummaryDTO::getTotalCents).sum());
+        // Whole rows (columns and id index) plus the three ten-character categories
+        long categories = 3L * (ExpenseColumnCache.CATEGORY_BYTES + 2 * "Category 0".length());
+        assertEquals(0, (columns.bytes() - categories) % ExpenseColumnCache.BYTES_PER_ROW);
+    }
+}
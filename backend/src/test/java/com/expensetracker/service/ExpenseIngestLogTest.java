@@ -0,0 +1,74 @@
+package com.expensetracker.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpenseIngestLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compactionKeepsTheUncheckpointedTailAndItsOffsets() throws Exception {
+        long first;
+        long second;
+        long third;
+        try (ExpenseIngestLog log = new ExpenseIngestLog(directory)) {
+            first = log.append("one");
+            second = log.append("two");
+            third = log.append("three");
+            log.writeCheckpoint(second);
+
+            log.compact(second);
+
+            assertEquals(second, log.start());
+            assertEquals(third, log.size());
+            assertEquals(List.of("three@" + third), read(log, second));
+            // Appends carry on from the same offsets
+            assertEquals(third + "four\n".length(), log.append("four"));
+        }
+        assertEquals(4, first);
+        assertEquals(List.of("expenses-" + second + ".log"), segments());
+
+        try (ExpenseIngestLog reopened = new ExpenseIngestLog(directory)) {
+            assertEquals(second, reopened.readCheckpoint());
+            assertEquals(List.of("three@" + third, "four@" + (third + 5)), read(reopened, reopened.readCheckpoint()));
+        }
+    }
+
+    @Test
+    void reopeningAfterAnInterruptedCompactionUsesTheNewSegment() throws Exception {
+        try (ExpenseIngestLog log = new ExpenseIngestLog(directory)) {
+            log.append("one");
+        }
+        // As if a crash hit between renaming the compacted segment into place and deleting the old one
+        Files.writeString(directory.resolve("expenses-4.log"), "two\n");
+        Files.writeString(directory.resolve("expenses-9.log.tmp"), "partial");
+
+        try (ExpenseIngestLog log = new ExpenseIngestLog(directory)) {
+            assertEquals(4, log.start());
+            assertEquals(List.of("two@8"), read(log, 4));
+        }
+        assertEquals(List.of("expenses-4.log"), segments());
+    }
+
+    private static List<String> read(ExpenseIngestLog log, long offset) throws Exception {
+        List<String> lines = new ArrayList<>();
+        log.readFrom(offset, (line, endOffset) -> lines.add(line + "@" + endOffset));
+        return lines;
+    }
+
+    private List<String> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.contains(".log")).sorted().toList();
+        }
+    }
+}
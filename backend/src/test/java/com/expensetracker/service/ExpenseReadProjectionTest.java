@@ -0,0 +1,94 @@
+package com.expensetracker.service;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.ExpenseFilter;
+import com.expensetracker.payload.ExpenseFilterPage;
+import com.expensetracker.payload.ExpensePage;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+public class ExpenseReadProjectionTest {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void readPathsSelectResponsesWithoutLoadingEntities() {
+        Long userId = TestUsers.create(userRepository, "projectionuser").getId();
+        Expense lunch = expenseService.addExpense(new Expense(null, "Team lunch", 1250, LocalDate.of(2024, 5, 2), "Food", null), userId);
+        expenseService.addExpense(new Expense(null, "Groceries", 4000, LocalDate.of(2024, 5, 3), "Food", null), userId);
+        expenseService.addExpense(new Expense(null, "Train", 900, LocalDate.of(2024, 5, 4), "Travel", null), userId);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        assertEquals(3, expenseService.getAllExpenses(userId).size());
+
+        ExpensePage first = expenseService.getExpensePage(userId, null, 2);
+        assertEquals(List.of("Train", "Groceries"), first.content().stream().map(ExpenseResponse::description).toList());
+        assertEquals(1, expenseService.getExpensePage(userId, first.nextCursor(), 2).content().size());
+
+        ExpenseFilterPage food = expenseService.getFilteredExpenses(userId,
+                new ExpenseFilter(List.of("Food"), null, null, null, null, null, "amount", "asc"), 0, 10);
+        assertEquals(2, food.totalElements());
+        assertEquals(new BigDecimal("12.50"), food.content().get(0).amount());
+
+        ExpenseResponse byId = expenseService.getExpenseById(lunch.getId(), userId);
+        assertEquals(new ExpenseResponse(lunch.getId(), "Team lunch", new BigDecimal("12.50"), LocalDate.of(2024, 5, 2), "Food"), byId);
+        assertEquals(lunch.getId(), expenseService.searchExpenses(userId, "lunch", null, null, null, 0, 10).content().get(0).id());
+
+        List<ExpenseResponse> exported = new ArrayList<>();
+        expenseService.exportExpenses(userId, null, null, exported::add);
+        assertEquals(3, exported.size());
+
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void keysetPagingWalksThroughUndatedExpenses() {
+        User user = TestUsers.create(userRepository, "undateduser");
+        // Saved through the repository: the date column is nullable and older rows may have none
+        expenseRepository.save(new Expense(null, "Undated A", 100, null, "Misc", user));
+        expenseRepository.save(new Expense(null, "Undated B", 200, null, "Misc", user));
+        expenseRepository.save(new Expense(null, "Dated", 300, LocalDate.of(2024, 5, 1), "Misc", user));
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            ExpensePage page = expenseService.getExpensePage(user.getId(), cursor, 1);
+            page.content().forEach(row -> seen.add(row.description()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of("Dated", "Undated B", "Undated A"), seen);
+    }
+}
@@ -0,0 +1,128 @@
+package com.expensetracker.service;
+
+import com.expensetracker.model.Expense;
+import com.expensetracker.model.ExpenseRollup;
+import com.expensetracker.model.Role;
+import com.expensetracker.model.User;
+import com.expensetracker.payload.ExpenseSummaryDTO;
+import com.expensetracker.payload.MonthlyExpenseSummaryDTO;
+import com.expensetracker.payload.RollupVerificationDTO;
+import com.expensetracker.repository.ExpenseRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ExpenseRollupService.class)
+public class ExpenseRollupServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ExpenseRollupService rollupService;
+
+    @Autowired
+    private ExpenseRollupRepository rollupRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setUsername("rollupuser");
+        user.setEmail("rollup@example.com");
+        user.setPassword("password");
+        user.setRole(Role.USER);
+        entityManager.persist(user);
+    }
+
+    private Expense persistExpense(LocalDate date, String category, long amountCents) {
+        Expense expense = entityManager.persist(new Expense(null, category, amountCents, date, category, user));
+        rollupService.add(expense);
+        return expense;
+    }
+
+    @Test
+    void addAndRemoveKeepBucketsInStep() {
+        persistExpense(LocalDate.of(2024, 3, 1), "Food", 1000);
+        Expense lunch = persistExpense(LocalDate.of(2024, 3, 20), "Food", 1550);
+        persistExpense(LocalDate.of(2024, 3, 5), "Rent", 70000);
+
+        List<ExpenseSummaryDTO> march = rollupService.getCategorySummary(user.getId(), 3, 2024);
+        assertEquals(2, march.size());
+        assertEquals(2550L, march.stream().filter(s -> s.getCategory().equals("Food")).findFirst().orElseThrow().getTotalCents());
+
+        entityManager.remove(lunch);
+        rollupService.remove(lunch);
+        entityManager.flush();
+
+        assertEquals(1000L, rollupService.getCategorySummary(user.getId(), 3, 2024).stream()
+                .filter(s -> s.getCategory().equals("Food")).findFirst().orElseThrow().getTotalCents());
+        assertTrue(rollupService.verify().isConsistent());
+    }
+
+    @Test
+    void movingAnExpenseShiftsAmountBetweenBucketsAndDropsEmptyOnes() {
+        Expense taxi = persistExpense(LocalDate.of(2024, 1, 31), "Travel", 3000);
+
+        rollupService.remove(user.getId(), taxi.getDate(), taxi.getCategory(), taxi.getAmountCents());
+        rollupService.add(user.getId(), LocalDate.of(2024, 2, 1), "Transport", 3500);
+        taxi.setDate(LocalDate.of(2024, 2, 1));
+        taxi.setCategory("Transport");
+        taxi.setAmountCents(3500);
+        entityManager.flush();
+
+        assertTrue(rollupService.getCategorySummary(user.getId(), 1, 2024).isEmpty());
+        List<MonthlyExpenseSummaryDTO> year = rollupService.getMonthlySummary(user.getId(), 2024);
+        assertEquals(1, year.size());
+        assertEquals(2, year.get(0).month());
+        assertEquals(3500L, year.get(0).totalCents());
+        assertTrue(rollupService.verify().isConsistent());
+    }
+
+    @Test
+    void expensesWithoutCategoryShareOneBucket() {
+        persistExpense(LocalDate.of(2024, 4, 2), null, 500);
+        Expense second = persistExpense(LocalDate.of(2024, 4, 9), null, 700);
+        rollupService.addAll(user.getId(), List.of(new Expense(null, "Imported", 300, LocalDate.of(2024, 4, 12), null, user)));
+
+        assertEquals(1, rollupRepository.count());
+        assertEquals(ExpenseRollup.NO_CATEGORY, rollupRepository.findAll().get(0).getCategory());
+        List<ExpenseSummaryDTO> april = rollupService.getCategorySummary(user.getId(), 4, 2024);
+        assertEquals(1, april.size());
+        assertNull(april.get(0).getCategory());
+        assertEquals(1500L, april.get(0).getTotalCents());
+
+        rollupService.remove(second);
+        assertEquals(800L, rollupService.getCategorySummary(user.getId(), 4, 2024).get(0).getTotalCents());
+    }
+
+    @Test
+    void rebuildRepairsDriftedRollup() {
+        persistExpense(LocalDate.of(2024, 5, 1), "Food", 1200);
+        persistExpense(LocalDate.of(2024, 6, 1), null, 800);
+        entityManager.persist(new ExpenseRollup(user.getId(), 1999, 1, "Ghost", 100, 1));
+        entityManager.flush();
+
+        assertFalse(rollupService.verify().isConsistent());
+
+        RollupVerificationDTO result = rollupService.rebuild();
+
+        assertTrue(result.isConsistent());
+        assertEquals(2, result.buckets());
+        assertEquals(2, rollupRepository.count());
+    }
+}
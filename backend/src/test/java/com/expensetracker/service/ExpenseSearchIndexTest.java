@@ -0,0 +1,92 @@
+package com.expensetracker.service;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.model.Expense;
+import com.expensetracker.payload.ExpenseResponse;
+import com.expensetracker.payload.ExpenseSearchPage;
+import com.expensetracker.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: index changes are applied after commit. Same context as ExpenseColumnCacheTest
+@SpringBootTest(properties = {
+        "app.expenses.column-cache.enabled=true",
+        "app.expenses.column-cache.max-bytes=4KB",
+        "app.expenses.search-index.max-bytes=8KB"
+})
+@ActiveProfiles("h2")
+public class ExpenseSearchIndexTest {
+
+    @Autowired
+    private ExpenseSearchIndex index;
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Expense add(Long userId, String description) {
+        return expenseService.addExpense(new Expense(null, description, 100, LocalDate.of(2024, 4, 1), "Misc", null), userId);
+    }
+
+    @Test
+    void tokenizesCaseAndAccentInsensitively() {
+        assertEquals(List.of("cafe", "creme", "brulee", "2x"), ExpenseSearchIndex.tokenize("Café CRÈME-brûlée, 2x!"));
+    }
+
+    @Test
+    void ranksMatchesAndFollowsCommittedWrites() {
+        Long userId = TestUsers.create(userRepository, "searchuser").getId();
+        Expense groceries = add(userId, "Weekly groceries");
+        Expense grocer = add(userId, "Grocer");
+        Expense coffee = add(userId, "Coffee beans");
+        add(userId, "Bus ticket");
+
+        // The exact token outranks a prefix match; every term must match
+        assertEquals(List.of(grocer.getId(), groceries.getId()), index.search(userId, "grocer"));
+        assertEquals(List.of(groceries.getId()), index.search(userId, "gro week"));
+        assertEquals(List.of(), index.search(userId, "grocer bus"));
+
+        expenseService.updateExpense(coffee.getId(), new Expense(null, "Grocer run", 100, LocalDate.of(2024, 4, 2), "Misc", null), userId);
+        expenseService.deleteExpense(grocer.getId(), userId);
+        assertEquals(List.of(coffee.getId(), groceries.getId()), index.search(userId, "grocer"));
+        assertTrue(index.search(userId, "coffee").isEmpty());
+
+        ExpenseSearchPage second = expenseService.searchExpenses(userId, "GROCER", null, null, null, 1, 1);
+        assertEquals(2, second.totalElements());
+        assertEquals(2, second.totalPages());
+        assertEquals(groceries.getId(), second.content().get(0).id());
+
+        // Filters narrow the matches before paging, so totals count only what passes them
+        ExpenseSearchPage filtered = expenseService.searchExpenses(userId, "grocer", List.of("Misc"), LocalDate.of(2024, 4, 2), null, 0, 10);
+        assertEquals(List.of(coffee.getId()), filtered.content().stream().map(ExpenseResponse::id).toList());
+        assertEquals(1, filtered.totalElements());
+        assertEquals(0, expenseService.searchExpenses(userId, "grocer", List.of("Food"), null, null, 0, 10).totalElements());
+    }
+
+    @Test
+    void scansUsersThatDoNotFitInTheBudget() {
+        Long userId = TestUsers.create(userRepository, "bigsearchuser").getId();
+        for (int i = 0; i < 60; i++) {
+            add(userId, "Taxi ride " + i);
+        }
+        Expense airport = add(userId, "Taxi to airport");
+
+        assertEquals(airport.getId(), index.search(userId, "taxi airport").get(0));
+        assertEquals(61, index.search(userId, "tax").size());
+        assertTrue(index.status().usedBytes() <= 8192);
+    }
+
+    @Test
+    void rejectsQueriesWithoutTerms() {
+        assertThrows(IllegalArgumentException.class, () -> index.search(1L, " -- "));
+    }
+}
@@ -2,6 +2,9 @@ package com.expensetracker.service;
 
 import com.expensetracker.model.Expense;
 import com.expensetracker.model.User;
+import com.expensetracker.payload.ExpenseCursor;
+import com.expensetracker.payload.ExpensePage;
+import com.expensetracker.payload.ExpenseResponse;
 import com.expensetracker.repository.ExpenseRepository;
 import com.expensetracker.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,14 +13,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,9 +33,18 @@ public class ExpenseServiceTest {
     @Mock
     private ExpenseRepository expenseRepository;
 
+    @Mock
+    private ExpenseColumnCache expenseColumnCache;
+
+    @Mock
+    private ExpenseSearchIndex expenseSearchIndex;
+
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ExpenseRollupService expenseRollupService;
+
     @InjectMocks
     private ExpenseServiceImpl expenseService;
 
@@ -44,72 +60,149 @@ public class ExpenseServiceTest {
         expense = new Expense();
         expense.setId(1L);
         expense.setDescription("Test Expense");
-        expense.setAmount(100.0);
+        expense.setAmount(new BigDecimal("100.00"));
         expense.setDate(LocalDate.now());
         expense.setUser(user);
     }
 
     @Test
     void testAddExpense() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(1L)).thenReturn(user);
         when(expenseRepository.save(any(Expense.class))).thenReturn(expense);
 
-        Expense result = expenseService.addExpense(expense, "testuser");
+        Expense result = expenseService.addExpense(expense, 1L);
 
         assertNotNull(result);
         assertEquals("Test Expense", result.getDescription());
         verify(expenseRepository, times(1)).save(any(Expense.class));
+        verify(userRepository, never()).findByUsername(any());
+        verify(userRepository).incrementDataVersion(1L);
     }
 
     @Test
     void testGetAllExpenses() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(expenseRepository.findByUserId(1L)).thenReturn(Collections.singletonList(expense));
+        when(expenseRepository.findResponsesByUserId(1L)).thenReturn(Collections.singletonList(ExpenseResponse.of(expense)));
 
-        List<Expense> result = expenseService.getAllExpenses("testuser");
+        List<ExpenseResponse> result = expenseService.getAllExpenses(1L);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(expenseRepository, times(1)).findByUserId(1L);
+        verify(expenseRepository, times(1)).findResponsesByUserId(1L);
+        verify(expenseRepository, never()).findByUserId(any());
     }
 
     @Test
     void testGetExpenseById() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
-        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(expenseRepository.findResponseByIdAndUserId(1L, 1L)).thenReturn(Optional.of(ExpenseResponse.of(expense)));
 
-        Expense result = expenseService.getExpenseById(1L, "testuser");
+        ExpenseResponse result = expenseService.getExpenseById(1L, 1L);
 
         assertNotNull(result);
-        assertEquals("Test Expense", result.getDescription());
-        verify(expenseRepository, times(1)).findById(1L);
+        assertEquals("Test Expense", result.description());
+        verify(expenseRepository, never()).findById(any());
     }
 
     @Test
     void testUpdateExpense() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
         when(expenseRepository.save(any(Expense.class))).thenReturn(expense);
 
         Expense updatedExpense = new Expense();
         updatedExpense.setDescription("Updated Expense");
-        updatedExpense.setAmount(200.0);
+        updatedExpense.setAmount(new BigDecimal("200.00"));
         updatedExpense.setDate(LocalDate.now());
 
-        Expense result = expenseService.updateExpense(1L, updatedExpense, "testuser");
+        Expense result = expenseService.updateExpense(1L, updatedExpense, 1L);
 
         assertNotNull(result);
         assertEquals("Updated Expense", result.getDescription());
         verify(expenseRepository, times(1)).save(any(Expense.class));
     }
 
+    @Test
+    void testUpdateExpenseMovesRollupBucket() {
+        LocalDate oldDate = LocalDate.of(2024, 1, 15);
+        expense.setDate(oldDate);
+        expense.setCategory("Food");
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
+        when(expenseRepository.save(any(Expense.class))).thenReturn(expense);
+
+        Expense updatedExpense = new Expense();
+        updatedExpense.setDescription("Train");
+        updatedExpense.setAmount(new BigDecimal("40.00"));
+        updatedExpense.setDate(LocalDate.of(2024, 2, 1));
+        updatedExpense.setCategory("Travel");
+
+        expenseService.updateExpense(1L, updatedExpense, 1L);
+
+        verify(expenseRollupService).remove(1L, oldDate, "Food", 10000L);
+        verify(expenseRollupService).add(1L, LocalDate.of(2024, 2, 1), "Travel", 4000L);
+        verify(userRepository).incrementDataVersion(1L);
+    }
+
     @Test
     void testDeleteExpense() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
         when(expenseRepository.findById(1L)).thenReturn(Optional.of(expense));
 
-        expenseService.deleteExpense(1L, "testuser");
+        expenseService.deleteExpense(1L, 1L);
 
         verify(expenseRepository, times(1)).delete(expense);
+        verify(expenseRollupService, times(1)).remove(expense);
+        verify(userRepository).incrementDataVersion(1L);
+    }
+
+    @Test
+    void testAddAndUpdateRejectInvalidExpenses() {
+        Expense undated = new Expense(null, "Lunch", 1250, null, "Food", null);
+        Expense negative = new Expense(null, "Refund", -100, LocalDate.of(2024, 1, 1), "Food", null);
+
+        assertThrows(IllegalArgumentException.class, () -> expenseService.addExpense(undated, 1L));
+        assertThrows(IllegalArgumentException.class, () -> expenseService.updateExpense(1L, negative, 1L));
+        verify(expenseRepository, never()).save(any(Expense.class));
+        verifyNoInteractions(expenseRollupService);
+    }
+
+    @Test
+    void testGetExpensePageReturnsCursorWhenMoreRowsExist() {
+        Expense older = new Expense();
+        older.setId(2L);
+        older.setDate(LocalDate.of(2024, 1, 1));
+        when(expenseRepository.findFirstPageByUserId(eq(1L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(ExpenseResponse.of(expense), ExpenseResponse.of(older)));
+
+        ExpensePage page = expenseService.getExpensePage(1L, null, 1);
+
+        assertEquals(1, page.content().size());
+        assertEquals(new ExpenseCursor(expense.getDate(), 1L), ExpenseCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void testGetExpensePageSeeksFromCursor() {
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        String cursor = new ExpenseCursor(date, 5L).encode();
+        when(expenseRepository.findPageByUserIdAfter(eq(1L), eq(date), eq(5L), any(Pageable.class))).thenReturn(Collections.singletonList(ExpenseResponse.of(expense)));
+
+        ExpensePage page = expenseService.getExpensePage(1L, cursor, 10);
+
+        assertEquals(1, page.content().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void testGetExpensePageSeeksPastUndatedCursor() {
+        String cursor = new ExpenseCursor(null, 5L).encode();
+        when(expenseRepository.findUndatedPageByUserIdAfter(eq(1L), eq(5L), any(Pageable.class))).thenReturn(Collections.emptyList());
+
+        ExpensePage page = expenseService.getExpensePage(1L, cursor, 10);
+
+        assertTrue(page.content().isEmpty());
+        assertEquals(new ExpenseCursor(null, 5L), ExpenseCursor.decode(cursor));
+    }
+
+    @Test
+    void testSummariesRejectMonthOrYearOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getExpenseSummaryByCategory(1L, 13, 2024));
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getExpenseSummaryByCategory(1L, 0, 2024));
+        assertThrows(IllegalArgumentException.class, () -> expenseService.getMonthlyExpenseSummary(1L, 0));
     }
 }
@@ -0,0 +1,158 @@
+package com.expensetracker.service;
+
+import com.expensetracker.TestUsers;
+import com.expensetracker.exception.ServiceBusyException;
+import com.expensetracker.model.Expense;
+import com.expensetracker.repository.ExpenseRepository;
+import com.expensetracker.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.expenses.write-behind.enabled=true",
+        // Long enough that the reads below only see the rows because they wait for them
+        "app.expenses.write-behind.flush-interval-ms=60000",
+        "app.expenses.write-behind.max-queued=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+public class ExpenseWriteBehindServiceTest {
+
+    @TempDir
+    static Path logDirectory;
+
+    @DynamicPropertySource
+    static void logDirectory(DynamicPropertyRegistry registry) {
+        registry.add("app.expenses.write-behind.log-dir", () -> logDirectory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ExpenseWriteBehindService writeBehindService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExpenseRollupService expenseRollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void acceptedExpensesAreVisibleToTheSameUsersNextRead() throws Exception {
+        String credentials = "{\"username\":\"behinduser\",\"email\":\"behind@example.com\",\"password\":\"secret-pass\"}";
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk());
+        String login = mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(credentials))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(login).get("token").asText();
+
+        for (String description : new String[] {"Coffee", "Bagel"}) {
+            String created = mockMvc.perform(post("/api/expenses")
+                            .header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"description\":\"" + description + "\",\"amount\":3.5,\"date\":\"2024-05-01\",\"category\":\"Food\"}"))
+                    .andExpect(status().isAccepted())
+                    .andReturn().getResponse().getContentAsString();
+            assertTrue(objectMapper.readTree(created).get("id").isNumber());
+        }
+        mockMvc.perform(post("/api/expenses")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"\",\"amount\":1,\"date\":\"2024-05-01\"}"))
+                .andExpect(status().isBadRequest());
+
+        JsonNode list = objectMapper.readTree(mockMvc.perform(get("/api/expenses").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(2, list.size());
+        assertTrue(expenseRollupService.verify().isConsistent());
+        assertEquals(Files.size(logDirectory.resolve("expenses-0.log")),
+                Long.parseLong(Files.readString(logDirectory.resolve("expenses.checkpoint"))));
+    }
+
+    @Test
+    void replaySkipsExpensesThatAreAlreadyStored() throws Exception {
+        Long userId = TestUsers.create(userRepository, "replayuser").getId();
+        Expense taxi = writeBehindService.append(new Expense(null, "Taxi", 1200, LocalDate.of(2024, 6, 2), "Transport", null), userId);
+        writeBehindService.awaitStored(userId);
+        long stored = expenseRepository.count();
+
+        // As after a crash between commit and checkpoint: everything in the log is replayed
+        Files.writeString(logDirectory.resolve("expenses.checkpoint"), "0");
+        writeBehindService.replay();
+
+        assertEquals(stored, expenseRepository.count());
+        assertTrue(expenseRepository.findById(taxi.getId()).isPresent());
+        assertTrue(expenseRollupService.verify().isConsistent());
+    }
+
+    @Test
+    void rowsTheDatabaseRejectsAreDeadLetteredWithoutBlockingTheQueue() throws Exception {
+        Long userId = TestUsers.create(userRepository, "deadletteruser").getId();
+        // Stands in for any row the database refuses although it passed validation
+        jdbcTemplate.execute("ALTER TABLE expenses ADD CONSTRAINT ck_test_no_poison CHECK (description <> 'Poison')");
+        try {
+            Expense poison = writeBehindService.append(new Expense(null, "Poison", 100, LocalDate.of(2024, 6, 1), "Food", null), userId);
+            Expense fine = writeBehindService.append(new Expense(null, "Fine", 200, LocalDate.of(2024, 6, 1), "Food", null), userId);
+
+            writeBehindService.awaitStored(userId);
+
+            assertTrue(expenseRepository.findById(fine.getId()).isPresent());
+            assertFalse(expenseRepository.findById(poison.getId()).isPresent());
+            JsonNode deadLetter = objectMapper.readTree(Files.readAllLines(logDirectory.resolve("expenses.dead")).get(0));
+            assertEquals(poison.getId().longValue(), deadLetter.get("expense").get("id").asLong());
+            assertTrue(deadLetter.get("error").asText().toUpperCase().contains("CK_TEST_NO_POISON"));
+            assertTrue(expenseRollupService.verify().isConsistent());
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE expenses DROP CONSTRAINT ck_test_no_poison");
+        }
+    }
+
+    @Test
+    void rowsThatCannotFitTheColumnsAreRefusedAndAFullQueueSheds() {
+        Long userId = TestUsers.create(userRepository, "queueuser").getId();
+        assertThrows(IllegalArgumentException.class,
+                () -> writeBehindService.append(new Expense(null, "x".repeat(Expense.DESCRIPTION_LENGTH + 1), 100, LocalDate.of(2024, 6, 1), "Food", null), userId));
+
+        for (int i = 0; i < 3; i++) {
+            writeBehindService.append(new Expense(null, "Queued " + i, 100, LocalDate.of(2024, 6, 1), "Food", null), userId);
+        }
+        assertThrows(ServiceBusyException.class,
+                () -> writeBehindService.append(new Expense(null, "Overflow", 100, LocalDate.of(2024, 6, 1), "Food", null), userId));
+
+        writeBehindService.awaitStored(userId);
+        writeBehindService.append(new Expense(null, "After", 100, LocalDate.of(2024, 6, 1), "Food", null), userId);
+        writeBehindService.awaitStored(userId);
+        assertEquals(4, expenseRepository.findByUserId(userId).size());
+    }
+}
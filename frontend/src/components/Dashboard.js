@@ -1,7 +1,6 @@
 import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import ExpenseService from '../services/expense.service';
-import UserService from '../services/user.service';
 import ChartDisplay from './ChartDisplay';
 import { FaPlus, FaMoneyBillWave, FaChartLine, FaPercentage } from 'react-icons/fa';
 
@@ -17,36 +16,15 @@ const Dashboard = () => {
   useEffect(() => {
     const fetchData = async () => {
       try {
-        const userResponse = await UserService.getProfile();
-        setUser(userResponse.data);
-
         const date = new Date();
-        const year = date.getFullYear();
-        const month = date.getMonth() + 1;
-        const summaryResponse = await ExpenseService.getExpenseSummary(year, month);
-        const monthlySummaryResponse = await ExpenseService.getMonthlyExpenseSummary(year);
-
-        let calculatedTotalSpending = 0;
-        if (summaryResponse.data && summaryResponse.data.length > 0) {
-          setExpenseSummaryData(summaryResponse.data);
-          calculatedTotalSpending = summaryResponse.data.reduce((sum, item) => sum + item.total, 0);
-          setTotalSpending(calculatedTotalSpending);
-        }
-
-        if (monthlySummaryResponse.data && monthlySummaryResponse.data.length > 0) {
-          setMonthlyExpenseData(monthlySummaryResponse.data);
-        }
+        const { data } = await ExpenseService.getDashboard(date.getFullYear(), date.getMonth() + 1);
+        setUser(data.profile);
+        setExpenseSummaryData(data.categories);
+        setMonthlyExpenseData(data.monthly);
+        setTotalSpending(data.monthTotal);
 
-        if (userResponse.data.monthlyIncome !== undefined && userResponse.data.monthlyIncome !== null) {
-          const monthlyIncome = userResponse.data.monthlyIncome;
-          if (monthlyIncome > 0) {
-            setPercentageOfIncomeSpent((calculatedTotalSpending / monthlyIncome) * 100);
-          } else {
-            setPercentageOfIncomeSpent(0);
-          }
-        } else {
-          setPercentageOfIncomeSpent(0);
-        }
+        const monthlyIncome = data.profile.monthlyIncome;
+        setPercentageOfIncomeSpent(monthlyIncome > 0 ? (data.monthTotal / monthlyIncome) * 100 : 0);
 
         setLoading(false);
       } catch (err) {
@@ -1,48 +1,140 @@
-import React, { useState, useEffect } from "react";
+import React, { useState, useEffect, useRef } from "react";
 import { Link } from "react-router-dom";
 import ExpenseService from "../services/expense.service";
 import { FaFilter, FaCalendarAlt } from "react-icons/fa";
 
+// Inclusive first and last day of a YYYY-MM month, as the API's from/to parameters
+const monthRange = (month) => {
+  if (!month) {
+    return {};
+  }
+  const [year, monthNumber] = month.split("-").map(Number);
+  const lastDay = new Date(year, monthNumber, 0).getDate();
+  return { from: `${month}-01`, to: `${month}-${String(lastDay).padStart(2, "0")}` };
+};
+
+// Cards fetched per request; "Load more" asks for the next page
+const PAGE_SIZE = 50;
+
+const filterParams = (categoryFilter, monthFilter) => ({
+  category: categoryFilter === "All" ? undefined : categoryFilter,
+  ...monthRange(monthFilter),
+});
+
 const ExpenseList = () => {
   const [expenses, setExpenses] = useState([]);
+  // { page, totalPages } of the filtered list; null when the whole list is loaded at once
+  const [listPage, setListPage] = useState(null);
   const [searchQuery, setSearchQuery] = useState("");
+  const [searchResults, setSearchResults] = useState(null);
+  const [searchPage, setSearchPage] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [categoryFilter, setCategoryFilter] = useState("All");
-  const [monthFilter, setMonthFilter] = useState("All");
+  // "" or a month as YYYY-MM
+  const [monthFilter, setMonthFilter] = useState("");
 
+  // What is being listed; a later page that arrives after this changed belongs to the old list and is dropped
+  const listKey = useRef("");
+  listKey.current = `${searchQuery}\n${categoryFilter}\n${monthFilter}`;
+
+  // Category and month are filtered on the server, one page at a time; without either the whole list is loaded
   useEffect(() => {
-    ExpenseService.getAll().then(
-      (response) => {
-        setExpenses(response.data);
+    let cancelled = false;
+    const request = categoryFilter === "All" && !monthFilter
+      ? ExpenseService.getAll().then((response) => ({ content: response.data, page: null }))
+      : ExpenseService.getFiltered({ ...filterParams(categoryFilter, monthFilter), page: 0, size: PAGE_SIZE })
+          .then((response) => ({
+            content: response.data.content,
+            page: { page: response.data.page, totalPages: response.data.totalPages },
+          }));
+    request.then(
+      ({ content, page }) => {
+        if (!cancelled) {
+          setExpenses(content);
+          setListPage(page);
+        }
       },
       (error) => {
         console.log(error);
       }
     );
-  }, []);
+    return () => {
+      cancelled = true;
+    };
+  }, [categoryFilter, monthFilter]);
+
+  // Description search runs on the server once typing pauses, narrowed there by the same category and month
+  useEffect(() => {
+    if (!/[\p{L}\p{N}]/u.test(searchQuery)) {
+      setSearchResults(null);
+      setSearchPage(null);
+      return undefined;
+    }
+    let cancelled = false;
+    const timer = setTimeout(() => {
+      ExpenseService.searchExpenses(searchQuery, 0, PAGE_SIZE, filterParams(categoryFilter, monthFilter)).then(
+        (response) => {
+          if (!cancelled) {
+            setSearchResults(response.data.content);
+            setSearchPage({ page: response.data.page, totalPages: response.data.totalPages });
+          }
+        },
+        (error) => console.log(error)
+      );
+    }, 250);
+    return () => {
+      cancelled = true;
+      clearTimeout(timer);
+    };
+  }, [searchQuery, categoryFilter, monthFilter]);
+
+  const searching = searchResults !== null;
+  const shownPage = searching ? searchPage : listPage;
+  const hasMore = shownPage !== null && shownPage.page + 1 < shownPage.totalPages;
+
+  const loadMore = () => {
+    const key = listKey.current;
+    const next = shownPage.page + 1;
+    const params = filterParams(categoryFilter, monthFilter);
+    const request = searching
+      ? ExpenseService.searchExpenses(searchQuery, next, PAGE_SIZE, params)
+      : ExpenseService.getFiltered({ ...params, page: next, size: PAGE_SIZE });
+    setLoadingMore(true);
+    request
+      .then(
+        (response) => {
+          if (listKey.current !== key) {
+            return;
+          }
+          // Skip ids already shown, in case rows shifted between pages
+          const append = (shown) => {
+            const ids = new Set(shown.map((expense) => expense.id));
+            return [...shown, ...response.data.content.filter((expense) => !ids.has(expense.id))];
+          };
+          const page = { page: response.data.page, totalPages: response.data.totalPages };
+          if (searching) {
+            setSearchResults(append);
+            setSearchPage(page);
+          } else {
+            setExpenses(append);
+            setListPage(page);
+          }
+        },
+        (error) => console.log(error)
+      )
+      .finally(() => setLoadingMore(false));
+  };
 
   const deleteExpense = (id) => {
     if (window.confirm("Are you sure you want to delete this expense?")) {
       ExpenseService.deleteExpense(id).then(() => {
-        setExpenses(expenses.filter((expense) => expense.id !== id));
+        setExpenses((shown) => shown.filter((expense) => expense.id !== id));
+        setSearchResults((results) => results && results.filter((expense) => expense.id !== id));
       });
     }
   };
 
-  const filteredExpenses = expenses
-    .filter((expense) =>
-      expense.description.toLowerCase().includes(searchQuery.toLowerCase())
-    )
-    .filter(
-      (expense) =>
-        categoryFilter === "All" || expense.category === categoryFilter
-    )
-    .filter((expense) => {
-      if (monthFilter === "All") {
-        return true;
-      }
-      const expenseMonth = new Date(expense.date).getMonth();
-      return expenseMonth === parseInt(monthFilter);
-    });
+  const filteredExpenses = searching ? searchResults : expenses;
 
   const categories = [
     "All",
@@ -53,22 +145,6 @@ const ExpenseList = () => {
     "Other",
   ];
 
-  const months = [
-    "All",
-    "January",
-    "February",
-    "March",
-    "April",
-    "May",
-    "June",
-    "July",
-    "August",
-    "September",
-    "October",
-    "November",
-    "December",
-  ];
-
   return (
     <div className="container mt-4">
       <div className="d-flex justify-content-between align-items-center mb-4">
@@ -112,16 +188,12 @@ const ExpenseList = () => {
             <span className="input-group-text">
               <FaCalendarAlt />
             </span>
-            <select
-              className="form-select"
+            <input
+              type="month"
+              className="form-control"
               value={monthFilter}
-              onChange={(e) => setMonthFilter(e.target.value)}>
-              {months.map((month, index) => (
-                <option key={month} value={index === 0 ? "All" : index - 1}>
-                  {month}
-                </option>
-              ))}
-            </select>
+              onChange={(e) => setMonthFilter(e.target.value)}
+            />
           </div>
         </div>
       </div>
@@ -166,6 +238,14 @@ const ExpenseList = () => {
           </div>
         )}
       </div>
+
+      {hasMore && (
+        <div className="text-center mb-4">
+          <button className="btn btn-outline-secondary" onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? "Loading..." : "Load more"}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
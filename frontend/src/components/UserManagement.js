@@ -1,21 +1,33 @@
 import React, { useState, useEffect } from "react";
 import AdminService from "../services/admin.service";
 
+const PAGE_SIZE = 9;
+
 const UserManagement = () => {
     const [users, setUsers] = useState([]);
     const [loading, setLoading] = useState(false);
     const [error, setError] = useState(null);
     const [searchQuery, setSearchQuery] = useState("");
-    const [visibleUsers, setVisibleUsers] = useState(9);
+    const [sort, setSort] = useState("id");
+    const [page, setPage] = useState(0);
+    const [totalPages, setTotalPages] = useState(0);
 
     useEffect(() => {
-        fetchUsers();
-    }, []);
+        fetchUsers(0);
+        // eslint-disable-next-line react-hooks/exhaustive-deps
+    }, [searchQuery, sort]);
 
-    const fetchUsers = () => {
+    // Pages are fetched from the server; "Show More" appends the next one
+    const fetchUsers = (pageToLoad) => {
         setLoading(true);
-        AdminService.getAllUsers()
-            .then((response) => setUsers(response.data || []))
+        const direction = sort === "id" || sort === "username" ? "asc" : "desc";
+        AdminService.getAllUsers({ page: pageToLoad, size: PAGE_SIZE, sort, direction, search: searchQuery || undefined })
+            .then((response) => {
+                const content = response.data?.content || [];
+                setUsers(prev => (pageToLoad === 0 ? content : [...prev, ...content]));
+                setPage(pageToLoad);
+                setTotalPages(response.data?.totalPages || 0);
+            })
             .catch(error => {
                 console.error("Error fetching users:", error);
                 setError("Failed to fetch users.");
@@ -26,7 +38,7 @@ const UserManagement = () => {
     const handleGrantAdmin = (userId) => {
         AdminService.updateUserRole(userId, "ADMIN")
             .then(() => {
-                fetchUsers();
+                fetchUsers(0);
             })
             .catch(error => {
                 console.error("Error updating user role:", error);
@@ -37,7 +49,7 @@ const UserManagement = () => {
     const handleRevokeAdmin = (userId) => {
         AdminService.updateUserRole(userId, "USER")
             .then(() => {
-                fetchUsers();
+                fetchUsers(0);
             })
             .catch(error => {
                 console.error("Error updating user role:", error);
@@ -45,21 +57,12 @@ const UserManagement = () => {
             });
     };
 
-    const filteredUsers = users.filter(user =>
-        user.username.toLowerCase().includes(searchQuery.toLowerCase()) ||
-        user.email.toLowerCase().includes(searchQuery.toLowerCase())
-    );
-
-    const showMore = () => {
-        setVisibleUsers(prevVisibleUsers => prevVisibleUsers + 9);
-    };
-
     return (
         <div className="container mt-4">
             <h2 className="h3 mb-4">User Management</h2>
 
             <div className="row mb-4">
-                <div className="col-md-12">
+                <div className="col-md-8">
                     <input
                         type="text"
                         className="form-control"
@@ -68,15 +71,24 @@ const UserManagement = () => {
                         onChange={(e) => setSearchQuery(e.target.value)}
                     />
                 </div>
+                <div className="col-md-4">
+                    <select className="form-select" value={sort} onChange={(e) => setSort(e.target.value)}>
+                        <option value="id">Sort: Oldest account</option>
+                        <option value="username">Sort: Username</option>
+                        <option value="totalSpend">Sort: Total spend</option>
+                        <option value="expenseCount">Sort: Expense count</option>
+                        <option value="lastExpenseDate">Sort: Last activity</option>
+                    </select>
+                </div>
             </div>
 
             {error && <div className="alert alert-danger">{error}</div>}
 
             <div className="row">
-                {loading ? (
+                {loading && users.length === 0 ? (
                     <div className="col-12 text-center">Loading users...</div>
-                ) : filteredUsers.length > 0 ? (
-                    filteredUsers.slice(0, visibleUsers).map((user) => (
+                ) : users.length > 0 ? (
+                    users.map((user) => (
                         <div key={user.id} className="col-md-6 col-lg-4 mb-4">
                             <div className="card h-100">
                                 <div className="card-body d-flex flex-column">
@@ -90,6 +102,10 @@ const UserManagement = () => {
                                         <h5 className="card-title">{user.username}</h5>
                                         <p className="card-text text-muted">{user.email}</p>
                                         <p className="card-text"><span className={`badge ${user.role === 'ADMIN' ? 'bg-success' : 'bg-secondary'}`}>{user.role}</span></p>
+                                        <p className="card-text small text-muted">
+                                            {user.expenseCount} expenses · RM{Number(user.totalSpend).toFixed(2)}
+                                            {user.lastExpenseDate && ` · last ${user.lastExpenseDate}`}
+                                        </p>
                                     </div>
                                     <div className="mt-auto d-flex justify-content-center">
                                         {user.username !== 'admin' && (
@@ -121,9 +137,9 @@ const UserManagement = () => {
                 )}
             </div>
 
-            {filteredUsers.length > visibleUsers && (
+            {page + 1 < totalPages && (
                 <div className="text-center mt-4">
-                    <button className="btn btn-primary" onClick={showMore}>
+                    <button className="btn btn-primary" onClick={() => fetchUsers(page + 1)} disabled={loading}>
                         Show More
                     </button>
                 </div>
@@ -8,7 +8,8 @@ const getAuthHeader = () => {
   return user && user.token ? { Authorization: `Bearer ${user.token}` } : {};
 };
 
-const getAllUsers = () => axios.get(API_URL + "users", { headers: getAuthHeader() });
+// one page of { content, page, size, totalElements, totalPages }; sort: id, username, role, expenseCount, totalSpend, lastExpenseDate
+const getAllUsers = (params = {}) => axios.get(API_URL + "users", { params, headers: getAuthHeader() });
 
 const getExpensesByUserId = (userId) =>
   axios.get(API_URL + "expenses", { params: { userId }, headers: getAuthHeader() });
@@ -25,5 +25,19 @@ const getMonthlyExpenseSummary = (year) => {
     return axios.get(API_URL + `expenses/summary/monthly/${year}`, { headers: getAuthHeader() });
 };
 
-const expenseService = { getAll, get, createExpense, updateExpense, getExpenseById, deleteExpense, getExpenseSummary, getMonthlyExpenseSummary };
+// filtered on the server: { category, from, to, minAmount, maxAmount, prefix, sort, direction, page, size }
+const getFiltered = (params) => axios.get(API_URL + "expenses", { params, headers: getAuthHeader() });
+
+// one page of { content, totalElements, totalPages }, best match first; terms also match word prefixes.
+// filters: { category, from, to }, applied on the server before paging
+const searchExpenses = (q, page = 0, size = 20, filters = {}) => {
+    return axios.get(API_URL + "expenses/search", { params: { q, page, size, ...filters }, headers: getAuthHeader() });
+};
+
+// profile, category breakdown, month total and monthly series for the dashboard in one request
+const getDashboard = (year, month) => {
+    return axios.get(API_URL + "dashboard", { params: { year, month }, headers: getAuthHeader() });
+};
+
+const expenseService = { getAll, get, getFiltered, createExpense, updateExpense, getExpenseById, deleteExpense, searchExpenses, getExpenseSummary, getMonthlyExpenseSummary, getDashboard };
 export default expenseService;